@@ -40,6 +40,10 @@ public abstract class DBP implements Serializable {
     protected int lastPosition; // the last position of this TF
     protected double timeOfLastPositionChange; // the last time the position was changed
     protected boolean repressesDNA; // FG: if true, then the TF represses a DNA region
+    // FG: the repression window (inclusive) added by the TF while it represses DNA; on unbinding the window is handed
+    // over to the derepression event scheduled by the unbinding
+    public int repressionBoundaryLeft;
+    public int repressionBoundaryRight;
     protected int direction;// the direction on which it is bound 0 for 5' -> 3' or 1 for 3' -> 5'
     protected double timeBound;
     protected boolean wasBound;
@@ -57,6 +61,8 @@ public abstract class DBP implements Serializable {
         timeBound = 0;
         moveRate = Constants.NONE;
         repressionEventRate = Constants.NONE;
+        repressionBoundaryLeft = Constants.NONE;
+        repressionBoundaryRight = Constants.NONE;
 
         leftNeighbour = Constants.NONE;
         rightNeighbour = Constants.NONE;
@@ -92,6 +98,8 @@ public abstract class DBP implements Serializable {
         timeBound = 0;
         moveRate = Constants.NONE;
         repressionEventRate = Constants.NONE;
+        repressionBoundaryLeft = Constants.NONE;
+        repressionBoundaryRight = Constants.NONE;
         leftNeighbour = Constants.NONE;
         rightNeighbour = Constants.NONE;
         pe = null;
@@ -117,6 +125,13 @@ public abstract class DBP implements Serializable {
         return this.position;
     }
 
+    /** FG
+     * returns true if the TF holds the repression window it added
+     */
+    public boolean hasRepressionWindow() {
+        return repressionBoundaryLeft != Constants.NONE;
+    }
+
     /** FG
      * returns true if TF is currently repressing DNA
      */
@@ -254,8 +269,8 @@ public abstract class DBP implements Serializable {
     public boolean getMoveRateParam(Cell n) {
         boolean isAboutToStay = false;
         if (lastPosition > 0) {
-            double lastMR =   n.dna.TFavgMoveRate[speciesID][this.lastPosition][direction];
-            double currentMR = n.dna.TFavgMoveRate[speciesID][this.position][direction];
+            double lastMR =   n.dna.getTFavgMoveRate(speciesID, this.lastPosition, direction);
+            double currentMR = n.dna.getTFavgMoveRate(speciesID, this.position, direction);
             double maxMR = n.TFspecies[this.speciesID].maxMoveRate;
             if ( (lastMR < maxMR && currentMR >maxMR) || (lastMR > maxMR && currentMR < maxMR)) {
                 isAboutToStay = true;
@@ -276,7 +291,7 @@ public abstract class DBP implements Serializable {
      */
     public void setMoveRate(Cell n) {
         boolean flag = getMoveRateParam(n);
-        this.moveRate = n.TFspecies[speciesID].calcMoveRate(n.dna.TFavgMoveRate[speciesID][position][direction],flag);
+        this.moveRate = n.TFspecies[speciesID].calcMoveRate(n.dna.getTFavgMoveRate(speciesID, position, direction),flag);
         if(n.isInDebugMode() && flag){
             n.printDebugInfo(pe.time + ": TF " + this.ID + " of type " + n.TFspecies[speciesID].name
             + " at position " + position + " is switching between search and recognition state and it's moverate is going to be reset to " + this.moveRate);
@@ -47,16 +47,19 @@ public class Remodeller implements Serializable {
         if (re.nextAction == Constants.EVENT_TF_REPRESSION) {
             assert !n.dbp[re.proteinID].isRepressingDNA();
             if (!n.dbp[re.proteinID].isRepressed(n)) {
+                assert !n.dbp[re.proteinID].hasRepressionWindow();
                 // close chromatin
                 n.dna.repress(re.boundaryLeft, re.boundaryRight, n);
                 // update repression state
                 n.dbp[re.proteinID].repressesDNA = true;
+                n.dbp[re.proteinID].repressionBoundaryLeft = re.boundaryLeft;
+                n.dbp[re.proteinID].repressionBoundaryRight = re.boundaryRight;
                 n.dbp[re.proteinID].updateRepressionRate(n);
                 if (n.isInDebugMode()) {
                     n.printDebugInfo(re.time + ": TF " + re.proteinID + " of type " + n.TFspecies[speciesID].name
                             + " started repression from position " + re.boundaryLeft + " to " + re.boundaryRight);
                 }
-                n.eventQueue.TFBindingEventQueue.updateProteinBindingPropensities(n);
+                n.eventQueue.TFBindingEventQueue.updateChangedProteinBindingPropensities(n, re.time);
                 n.TFspecies[speciesID].countTFRepressionEvents++;
                 totalRepressionAndDerepressionEvents++;
             } else if (n.isInDebugMode()) {
@@ -69,6 +72,8 @@ public class Remodeller implements Serializable {
             // this prevents changing repression status if this derepression event was scheduled on the unbinding
             if (re.scheduleNextEvent) {
                 n.dbp[re.proteinID].repressesDNA = false;
+                n.dbp[re.proteinID].repressionBoundaryLeft = Constants.NONE;
+                n.dbp[re.proteinID].repressionBoundaryRight = Constants.NONE;
             }
             // update repression rate
             n.dbp[re.proteinID].updateRepressionRate(n);
@@ -80,9 +85,10 @@ public class Remodeller implements Serializable {
                         + " ended repression from position " + re.boundaryLeft + " to " + re.boundaryRight);
             }
 
-            n.dna.derepress(n, re.boundaryLeft, re.boundaryRight, re.proteinID, re.time);
+            // the event removes its own window: the one of the bound molecule, or the one it left when it unbound
+            n.dna.derepress(n, re.boundaryLeft, re.boundaryRight);
 
-            n.eventQueue.TFBindingEventQueue.updateProteinBindingPropensities(n);
+            n.eventQueue.TFBindingEventQueue.updateChangedProteinBindingPropensities(n, re.time);
             n.TFspecies[speciesID].countTFDerepressionEvents++;
             totalRepressionAndDerepressionEvents++;
         }
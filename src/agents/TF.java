@@ -180,14 +180,14 @@ public class TF extends DBP implements Serializable {
         }
 
         // update target sited statistics
-        if (this.position != Constants.NONE && n.dna.isTargetSite[this.speciesID][this.position][this.direction] != Constants.NONE) {
-            n.updateTargetSiteStatistics(n.dna.isTargetSite[this.speciesID][this.position][this.direction],
+        if (this.position != Constants.NONE && n.dna.getTargetSite(this.speciesID, this.position, this.direction) != Constants.NONE) {
+            n.updateTargetSiteStatistics(n.dna.getTargetSite(this.speciesID, this.position, this.direction),
                     this.timeOfLastPositionChange, true);
             if (n.runUntilTSReached) {
                 n.areTargetSitesToBeReached = n.tsg.areTargetSitesToBeReached();
             }
-        } else if (this.lastPosition != Constants.NONE && n.dna.isTargetSite[this.speciesID][this.lastPosition][oldDirection] != Constants.NONE) {
-            n.updateTargetSiteStatistics(n.dna.isTargetSite[this.speciesID][this.lastPosition][oldDirection],
+        } else if (this.lastPosition != Constants.NONE && n.dna.getTargetSite(this.speciesID, this.lastPosition, oldDirection) != Constants.NONE) {
+            n.updateTargetSiteStatistics(n.dna.getTargetSite(this.speciesID, this.lastPosition, oldDirection),
                     this.timeOfLastPositionChange, false);
         }
     }
@@ -234,7 +234,7 @@ public class TF extends DBP implements Serializable {
      * updates dna occupancy
      */
     public void updateBoundTime(Cell n, double timeBound, int direction, int position) {
-        n.dna.effectiveTFOccupancy[speciesID][position][direction] += timeBound;
+        n.dna.addTFOccupancy(speciesID, position, direction, timeBound);
     }
 
 
@@ -278,7 +278,8 @@ public class TF extends DBP implements Serializable {
 
             for (int i = (int) bufferCoop.region1.start; i < bufferCoop.region1.end; i++) {
                 for (int j = startDir; j < endDir; j++) {
-                    n.dna.TFavgMoveRate[bufferCoop.species1ID][i][j] /= bufferCoop.affinityIncrease;
+                    n.dna.setTFavgMoveRate(bufferCoop.species1ID, i, j,
+                            n.dna.getTFavgMoveRate(bufferCoop.species1ID, i, j) / bufferCoop.affinityIncrease);
 
                     if (bufferCoop.isReversible) {
                         boundMolecule = n.dna.getBoundMolecule(i);
@@ -317,7 +318,8 @@ public class TF extends DBP implements Serializable {
             //double buffer;
             for (int i = (int) bufferCoop.region1.start; i < bufferCoop.region1.end; i++) {
                 for (int j = startDir; j < endDir; j++) {
-                    n.dna.TFavgMoveRate[bufferCoop.species1ID][i][j] *= bufferCoop.affinityIncrease;
+                    n.dna.setTFavgMoveRate(bufferCoop.species1ID, i, j,
+                            n.dna.getTFavgMoveRate(bufferCoop.species1ID, i, j) * bufferCoop.affinityIncrease);
 
                     if (bufferCoop.isReversible) {
                         boundMolecule = n.dna.getBoundMolecule(i);
@@ -438,6 +440,9 @@ public class TF extends DBP implements Serializable {
             n.dbp[this.ID].repressionEventRate = n.remodeller.derepressionRate;
             n.eventQueue.scheduleNextTFRepressionEvent(n, this.ID, time, false);
             n.dbp[this.ID].repressesDNA = false;
+            // the window is removed by the derepression event, even if the molecule represses again before it
+            n.dbp[this.ID].repressionBoundaryLeft = Constants.NONE;
+            n.dbp[this.ID].repressionBoundaryRight = Constants.NONE;
         }
 
         unbound = n.dna.unbindMolecule(n, this.ID, this.position, this.size);
@@ -750,7 +755,7 @@ public class TF extends DBP implements Serializable {
         }
 
         //check if the TF can rebind
-        boolean canBind = n.dna.effectiveTFavailability[this.speciesID][newPosition];
+        boolean canBind = n.dna.effectiveTFavailability[this.speciesID].get(newPosition);
 
         // if it can rebind or it doesn't matter if it can rebind => unbinds the TF
         if (canBind || !n.TFspecies[speciesID].stallsIfBlocked) {
@@ -13,6 +13,11 @@ import utils.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 /**
@@ -30,6 +35,7 @@ public class Cell implements Serializable {
 
     //internal parameters
     public Random randomGenerator;
+    private long masterSeed; // the seed from which the random number streams of the samples are derived
     public DNA dna;
     public TFSpecies[] TFspecies;
     public int maxRepressionLeftSize, maxRepressionRightSize, maxTFSize;
@@ -145,7 +151,8 @@ public class Cell implements Serializable {
     private void initialiseInternalParameters() {
 
         //create the random number generator
-        createRandomNumberGenerator();
+        this.masterSeed = this.ip.RANDOM_SEED.value > 0 ? this.ip.RANDOM_SEED.value : new Random().nextLong();
+        createRandomNumberGenerator(0);
 
         this.cellTime = 0;
         this.totalSimulatedTime = 0;
@@ -189,9 +196,6 @@ public class Cell implements Serializable {
      */
     private void resetInternalParameters() {
 
-        //create the random number generator
-        createRandomNumberGenerator();
-
         this.cellTime = 0;
         eventQueue = new EventList(this);
         this.unbindMoleculesAndDerepressDNA();
@@ -202,13 +206,7 @@ public class Cell implements Serializable {
         }
 
         //reset target site reached
-        for (int i = 0; i < TFspecies.length; i++) {
-            for (int j = 0; j < dna.strand.length; j++) {
-                for (int k = 0; k < this.TFreadingDirection; k++) {
-                    this.dna.firstReached[i][j][k] = Constants.NONE;
-                }
-            }
-        }
+        this.dna.resetFirstReached();
 
         //TS to be reached;
         areTargetSitesToBeReached = dna.areTargetSites;
@@ -218,12 +216,30 @@ public class Cell implements Serializable {
 
 
     /**
-     * initiates the random number generator
+     * restarts the stream of the current sample before its first event. The prebound molecules are drawn from the
+     * same stream (bindMolecules), so the events of a sample always start at the beginning of its stream, whether the
+     * samples run one after the other or on parallel threads
      */
-    private void createRandomNumberGenerator() {
-        randomGenerator = new Random();
-        if (this.ip.RANDOM_SEED.value > 0) {
-            randomGenerator = new Random(this.ip.RANDOM_SEED.value);
+    private void restartSampleRandomNumberGenerator() {
+        createRandomNumberGenerator(this.ensemble + 1);
+    }
+
+    /**
+     * initiates the random number generator. Stream 0 generates the objects of the cell and stream i+1 the sample i of
+     * the ensemble, so each sample has its own sequence which does not depend on the previous samples. The legacy
+     * generator restarts the same sequence for every sample, as in the previous versions
+     *
+     * @param stream the stream of the master seed
+     */
+    private void createRandomNumberGenerator(long stream) {
+        boolean isLegacy = this.ip.RANDOM_VARIATES.value.equals(Constants.RANDOM_VARIATES_LEGACY);
+        if (this.ip.RANDOM_GENERATOR.value.equals(Constants.RANDOM_GENERATOR_LEGACY)) {
+            randomGenerator = new RandomVariates(isLegacy);
+            if (this.ip.RANDOM_SEED.value > 0) {
+                randomGenerator = new RandomVariates(this.ip.RANDOM_SEED.value, isLegacy);
+            }
+        } else {
+            randomGenerator = Xoshiro256StarStar.forStream(this.masterSeed, stream, isLegacy);
         }
     }
 
@@ -341,7 +357,8 @@ public class Cell implements Serializable {
      * either load the sequence from a file or generate it randomly
      */
     private void createDNAstrand() {
-        DNA bufferDNA = DNAFilesParser.fastaFileParser(this.ip.DNA_SEQUENCE_FILE.value);
+        DNA bufferDNA = DNAFilesParser.sequenceFileParser(this.ip.DNA_SEQUENCE_FILE.value,
+                this.ip.DNA_SEQUENCE_REGION.value);
         if (bufferDNA != null && bufferDNA.strand != null && bufferDNA.strand.length > 0) {
             dna = new DNA(bufferDNA);
         } else {
@@ -524,7 +541,7 @@ public class Cell implements Serializable {
      * pre-bind a bulk of molecules on the DNA
      */
     public void bindMolecules() {
-        this.createRandomNumberGenerator();
+        this.createRandomNumberGenerator(this.ensemble + 1);
 
         int moleculesToBind, bound, newPosition;
         int[] newLocation;
@@ -582,6 +599,9 @@ public class Cell implements Serializable {
             }
             re = (RepressionEvent) this.eventQueue.TFRepressionEventQueue.pop();
         }
+        // FG: remove the windows whose derepression events were discarded with the event list of the previous sample
+        this.dna.derepressAll(this);
+        assert this.dna.isDerepressed();
         this.eventQueue.TFBindingEventQueue.updateProteinBindingPropensities(this);
     }
 
@@ -646,23 +666,20 @@ public class Cell implements Serializable {
                 || (this.randomGenerator.nextDouble() > TFspecies[speciesID].initialDrop.probability))
         {
             newPosition = Gillespie.getNextPositionToBind(random * dna.effectiveTFavailabilitySum[speciesID],
-                    dna.effectiveTFavailability[speciesID], dna.effectiveTFsectorsAvailabilitySum[speciesID],
+                    dna.effectiveTFavailability[speciesID], dna.effectiveTFsectorsAvailabilityIndex[speciesID],
                     dna.DNAsectorSize);
         } else {
-            int sum = 0;
-            boolean[] buffer = new boolean[TFspecies[speciesID].relInitialDrop.size()];
-            for (int i = 0; i < TFspecies[speciesID].relInitialDrop.size(); i++) {
-                buffer[i] = dna.effectiveTFavailability[speciesID][i + (int) TFspecies[speciesID].relInitialDrop.start];
-                if (buffer[i]) {
-                    sum++;
-                }
-            }
+            // sample only the available positions of the initial drop region
+            int start = (int) TFspecies[speciesID].relInitialDrop.start;
+            int end = start + TFspecies[speciesID].relInitialDrop.size();
+            int sum = Gillespie.countAvailablePositions(dna.effectiveTFavailability[speciesID],
+                    dna.effectiveTFsectorsAvailabilityIndex[speciesID], dna.DNAsectorSize, start, end);
             if (sum > 0) {
-                newPosition = Gillespie.getNextReaction(random * sum, buffer);
-                newPosition += (int) TFspecies[speciesID].relInitialDrop.start;
+                newPosition = Gillespie.getNextPositionToBind(random * sum, dna.effectiveTFavailability[speciesID],
+                        dna.effectiveTFsectorsAvailabilityIndex[speciesID], dna.DNAsectorSize, start);
             } else {
                 newPosition = Gillespie.getNextPositionToBind(random * dna.effectiveTFavailabilitySum[speciesID],
-                        dna.effectiveTFavailability[speciesID], dna.effectiveTFsectorsAvailabilitySum[speciesID],
+                        dna.effectiveTFavailability[speciesID], dna.effectiveTFsectorsAvailabilityIndex[speciesID],
                         dna.DNAsectorSize);
             }
         }
@@ -682,12 +699,12 @@ public class Cell implements Serializable {
         int newPosition = Constants.NONE;
         int maxDirection;
         for (int i = 0; i < dna.strand.length; i++) {
-            if (dna.effectiveTFavailability[speciesID][i]) {
+            if (dna.effectiveTFavailability[speciesID].get(i)) {
                 maxDirection = 1;
-                if (dna.TFavgMoveRate[speciesID][i].length == 1 || dna.TFavgMoveRate[speciesID][i][0] >= dna.TFavgMoveRate[speciesID][i][1]) {
+                if (dna.TFdirections == 1 || dna.getTFavgMoveRate(speciesID, i, 0) >= dna.getTFavgMoveRate(speciesID, i, 1)) {
                     maxDirection = 0;
                 }
-                if (newPosition == Constants.NONE || (dna.TFavgMoveRate[speciesID][newPosition][direction] > dna.TFavgMoveRate[speciesID][i][maxDirection])) {
+                if (newPosition == Constants.NONE || (dna.getTFavgMoveRate(speciesID, newPosition, direction) > dna.getTFavgMoveRate(speciesID, i, maxDirection))) {
                     direction = maxDirection;
                     newPosition = i;
                 }
@@ -939,9 +956,8 @@ public class Cell implements Serializable {
         this.ip.STOP_TIME.value = stopTime;
         this.totalElapsedTime = totalElapsedTime;
 
-        //restart random number generator
         if (this.cellTime == 0) {
-            createRandomNumberGenerator();
+            restartSampleRandomNumberGenerator();
         }
 
         this.isPartialSimulation = (this.ip.STOP_TIME.value != this.totalStopTime)
@@ -1002,8 +1018,8 @@ public class Cell implements Serializable {
 
         printFinalInfo(elapsedTimeSec);
 
-        //print steady state info
-        if (isEndOfSimulation(this.cellTime)) {
+        //print steady state info (the intervals run after the last sample has finished are ignored)
+        if (isEndOfSimulation(this.cellTime) && this.ensemble < this.ip.ENSEMBLE_SIZE.value) {
             performEndSampleActions(curTime);
             if (ensemble >= this.ip.ENSEMBLE_SIZE.value) {
                 performEndActions(elapsedTimeSec);
@@ -1033,6 +1049,18 @@ public class Cell implements Serializable {
         //update the number of simulated samples
         ensemble++;
 
+        this.updateSampleStatistics();
+
+        //reset simulation if not last simulation
+        if (this.ensemble < this.ip.ENSEMBLE_SIZE.value) {
+            this.resetInternalParameters();
+        }
+    }
+
+    /**
+     * adds the final occupancy, the simulated time and the bound time of the sample which finished to the statistics
+     */
+    private void updateSampleStatistics() {
         //update final occupancy
         if (this.ip.PRINT_FINAL_OCCUPANCY.value) {
             dna.updateFinalPosition(this);
@@ -1043,11 +1071,6 @@ public class Cell implements Serializable {
 
         //update boud time
         this.updateDNABoundTime();
-
-        //reset simulation if not last simulation
-        if (this.ensemble < this.ip.ENSEMBLE_SIZE.value) {
-            this.resetInternalParameters();
-        }
     }
 
     /**
@@ -1064,7 +1087,7 @@ public class Cell implements Serializable {
         this.recordLastSlidingLengths();
 
         //if the simulator follows the occupancy of target sites write the last values;
-        if (this.ip.FOLLOW_TS.value) {
+        if (this.ip.ENSEMBLE_SIZE.value == 1 && this.ip.FOLLOW_TS.value) {
             this.TargetSiteFollowLines.add(this.cellTime + ", " + this.tsg.getTargetSiteGroupsOccupancyString());
             this.printTargetSiteToFollowInfo();
         }
@@ -1073,6 +1096,162 @@ public class Cell implements Serializable {
         this.dna.collisionsCountTotal = Utils.computeSum(this.dna.collisionsCount);
     }
 
+    /**
+     * runs the samples of the ensemble on several threads and prints the results as when the samples are simulated one
+     * after the other. Each thread simulates the samples w, w + threads, ... in its own copy of the cell, which shares
+     * the DNA sequence and the affinity landscape with this cell; the statistics of the copies are then merged in this
+     * cell. Sample i draws from stream i + 1 of the master seed, so the results depend only on the seed and the number
+     * of threads.
+     *
+     * @param threads the number of threads (0 for the number of processors)
+     * @return the elapsed time in seconds
+     */
+    public double runEnsembleInParallel(int threads) throws FileNotFoundException {
+        long curTime = System.currentTimeMillis();
+        final int samples = this.ip.ENSEMBLE_SIZE.value;
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        final int step = Math.max(1, Math.min(threads, samples));
+
+        final SharedObjectCopier copier;
+        try {
+            copier = new SharedObjectCopier(this, getSharedObjects());
+        } catch (IOException e) {
+            stopSimulation("the cell could not be copied for the ensemble threads: " + e);
+            return 0;
+        }
+
+        this.printDebugInfo("simulating " + samples + " samples on " + step + " threads");
+        final Cell[] copies = new Cell[step];
+        ExecutorService executor = Executors.newFixedThreadPool(step);
+        ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+        for (int w = 0; w < step; w++) {
+            final int firstSample = w;
+            results.add(executor.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    copies[firstSample] = (Cell) copier.copy();
+                    copies[firstSample].runEnsembleSamples(firstSample, step, samples);
+                    return null;
+                }
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            stopSimulation("the ensemble threads were interrupted");
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            stopSimulation("an ensemble thread failed: " + e.getCause());
+        }
+
+        //merge the statistics of the copies
+        this.clearStatistics();
+        for (Cell copy : copies) {
+            this.addStatistics(copy);
+        }
+        this.ensemble = samples;
+        this.cellTime = this.totalStopTime;
+
+        double elapsedTimeSec = this.computeElapsedTime(curTime);
+        this.computeDNABoundTime();
+        this.dna.collisionsCountTotal = Utils.computeSum(this.dna.collisionsCount);
+        printFinalDebugInfo(elapsedTimeSec);
+
+        return elapsedTimeSec;
+    }
+
+    /**
+     * simulates the samples firstSample, firstSample + step, ... of the ensemble in this copy of the cell
+     */
+    private void runEnsembleSamples(int firstSample, int step, int samples) {
+        if (firstSample > 0) {
+            // the molecules which were bound when the cell was created are not part of any sample of this copy
+            this.unbindMoleculesAndDerepressDNA();
+            this.clearStatistics();
+        }
+
+        for (int sample = firstSample; sample < samples; sample += step) {
+            this.ensemble = sample;
+            if (sample > 0) {
+                this.resetInternalParameters();
+            }
+            restartSampleRandomNumberGenerator();
+
+            boolean hasNextEvent = true;
+            while (!isEndOfSimulation(this.cellTime) && hasNextEvent) {
+                hasNextEvent = executeNextEvent(true);
+            }
+            this.updateSampleStatistics();
+            this.printDebugInfo("sample " + sample + " finished");
+        }
+
+        if ((samples - 1 - firstSample) % step != 0) {
+            // the last sample of the ensemble was simulated by another copy, so the molecules are unbound as when the
+            // next sample is reset
+            this.cellTime = 0;
+            eventQueue = new EventList(this);
+            this.unbindMoleculesAndDerepressDNA();
+        } else {
+            this.recordLastSlidingLengths();
+        }
+    }
+
+    /**
+     * returns the objects which the copies of the cell share with it: the DNA sequence, the affinity landscape and the
+     * other arrays which are computed once
+     */
+    private Object[] getSharedObjects() {
+        ArrayList<Object> shared = new ArrayList<Object>();
+        shared.add(this.gui);
+        shared.add(this.ip);
+        shared.add(this.dna.strand);
+        shared.add(this.dna.sectorID);
+        shared.add(this.dna.isTargetSite);
+        boolean isMoveRateConstant = true;
+        for (TFSpecies species : this.TFspecies) {
+            shared.add(species.isCooperativeSite);
+            // the DNA based cooperativity changes the move rates during the simulation
+            isMoveRateConstant &= !species.hasDNAbasedCooperativity;
+        }
+        if (isMoveRateConstant) {
+            // the slide bounds follow the move rates
+            shared.add(this.dna.TFavgMoveRate);
+            shared.add(this.dna.TFSlideLeftNo);
+            shared.add(this.dna.TFSlideRightNo);
+        }
+        return shared.toArray();
+    }
+
+    /**
+     * clears the statistics of the samples
+     */
+    private void clearStatistics() {
+        this.totalSimulatedTime = 0;
+        this.eventsCount = 0;
+        for (TFSpecies species : this.TFspecies) {
+            species.clearStatistics();
+        }
+        this.dna.clearStatistics();
+        this.tsg.clearStatistics();
+    }
+
+    /**
+     * adds the statistics of the samples simulated by a copy of this cell
+     */
+    private void addStatistics(Cell copy) {
+        this.totalSimulatedTime += copy.totalSimulatedTime;
+        this.eventsCount += copy.eventsCount;
+        for (int i = 0; i < this.TFspecies.length; i++) {
+            this.TFspecies[i].addStatistics(copy.TFspecies[i]);
+        }
+        this.dna.addStatistics(copy.dna);
+        this.tsg.addStatistics(copy.tsg);
+    }
+
     /**
      * method that executes the next event in the list
      *
@@ -1093,34 +1272,46 @@ public class Cell implements Serializable {
         if (e != null) {
             eventsCount++;
             // there is at least one event in the queue
-            if (e instanceof ProteinEvent) {
-                // next event is a random walk event
-                ProteinEvent pe = (ProteinEvent) e;
-                proteinID = pe.proteinID;
-
-                if (!fixStopTime || e.time <= this.totalStopTime) {
-                    this.dbp[proteinID].act(this, pe);
-                    this.cellTime = e.time;
-                } else {
-                    // fixStopTime == True && e.time > this.totalStopTime
-                    this.cellTime = this.totalStopTime;
-                }
-                this.eventQueue.scheduleNextTFOnDNAEvent(this, pe.proteinID, e.time);
-
-            } else if (e instanceof RepressionEvent) {
-                // an event caused by a repressor
-                RepressionEvent re = (RepressionEvent) e;
-                if (!fixStopTime || e.time <= this.totalStopTime) {
-                    this.remodeller.act(this, re);
-                    this.cellTime = e.time;
-                } else {
-                    // fixStopTime == True && e.time > this.totalStopTime
-                    this.cellTime = this.totalStopTime;
+            switch (e.eventType) {
+                case Constants.NEXT_EVENT_IS_TF_BINDING:
+                case Constants.NEXT_EVENT_IS_TF_RANDOM_WALK: {
+                    // next event is a binding or random walk event
+                    ProteinEvent pe = (ProteinEvent) e;
+                    proteinID = pe.proteinID;
+
+                    if (!fixStopTime || e.time <= this.totalStopTime) {
+                        this.dbp[proteinID].act(this, pe);
+                        this.cellTime = e.time;
+                    } else {
+                        // fixStopTime == True && e.time > this.totalStopTime
+                        this.cellTime = this.totalStopTime;
+                    }
+                    double eventTime = e.time;
+                    this.eventQueue.recycleEvent(e);
+                    this.eventQueue.scheduleNextTFOnDNAEvent(this, proteinID, eventTime);
+                    break;
                 }
-                // prevent scheduling event if this is derepression event scheduled due to repressor unbinding
-                if (re.scheduleNextEvent) {
-                    this.eventQueue.scheduleNextTFOnDNAEvent(this, re.proteinID, e.time);
+                case Constants.NEXT_EVENT_IS_TF_REPRESSION: {
+                    // an event caused by a repressor
+                    RepressionEvent re = (RepressionEvent) e;
+                    if (!fixStopTime || e.time <= this.totalStopTime) {
+                        this.remodeller.act(this, re);
+                        this.cellTime = e.time;
+                    } else {
+                        // fixStopTime == True && e.time > this.totalStopTime
+                        this.cellTime = this.totalStopTime;
+                    }
+                    double eventTime = e.time;
+                    boolean scheduleNextEvent = re.scheduleNextEvent;
+                    proteinID = re.proteinID;
+                    this.eventQueue.recycleEvent(e);
+                    // prevent scheduling event if this is derepression event scheduled due to repressor unbinding
+                    if (scheduleNextEvent) {
+                        this.eventQueue.scheduleNextTFOnDNAEvent(this, proteinID, eventTime);
+                    }
+                    break;
                 }
+                default:
             }
         } else {
             if (!canTFMoleculeBind()) {
@@ -1148,7 +1339,7 @@ public class Cell implements Serializable {
             for (int i_tf = 0; i_tf < numTF; i_tf++) {
                 arrayTFavail = new StringBuilder("effAv " + this.TFspecies[i_tf].name + ": ");
                 for (int i = 0; i < strandLength; i++) {
-                    arrayTFavail.append(String.format("%2d,", (this.dna.effectiveTFavailability[i_tf][i] ? 1 : 0)));
+                    arrayTFavail.append(String.format("%2d,", (this.dna.effectiveTFavailability[i_tf].get(i) ? 1 : 0)));
                 }
                 printDebugInfo(arrayTFavail.toString());
             }
@@ -1504,7 +1695,7 @@ public class Cell implements Serializable {
                 value.updateBoundTime(this, timeBound, value.getDirection(), value.getPosition());
 
                 //update target sites statistics
-                int tsID = dna.isTargetSite[value.speciesID][value.getPosition()][value.getDirection()];
+                int tsID = dna.getTargetSite(value.speciesID, value.getPosition(), value.getDirection());
                 if (tsID != Constants.NONE) {
                     tsg.updateTargetSiteStatistics(tsID, this.cellTime, true);
                 }
@@ -1521,7 +1712,7 @@ public class Cell implements Serializable {
             TFspecies[j].timeBoundAvg = 0;
             for (int i = 0; i < this.dna.strand.length; i++) {
                 for (int dir = 0; dir < this.TFreadingDirection; dir++) {
-                    TFspecies[j].timeBoundAvg += dna.effectiveTFOccupancy[j][i][dir];
+                    TFspecies[j].timeBoundAvg += dna.getTFOccupancy(j, i, dir);
                 }
             }
             TFspecies[j].timeBoundAvg /= (TFspecies[j].copyNumber * this.totalSimulatedTime);
@@ -1582,7 +1773,7 @@ public class Cell implements Serializable {
         this.tsg.updateTargetSiteStatistics(tsID, time, bound);
 
         //add a line in the target sites follow file with the new occupancy
-        if (this.ip.FOLLOW_TS.value) {
+        if (this.ip.ENSEMBLE_SIZE.value == 1 && this.ip.FOLLOW_TS.value) {
             String str = time + ", ";
             str += this.tsg.getTargetSiteGroupsOccupancyString();
             this.TargetSiteFollowLines.add(str);
@@ -1,5 +1,7 @@
 package event;
 
+import utils.Constants;
+
 import java.io.Serializable;
 
 /**
@@ -12,6 +14,8 @@ public class Event implements Comparable<Event>,  Serializable {
 	private static final long serialVersionUID = 394823679537690993L;
 	public double time;
 	public int nextAction;
+	public int eventType; // the queue of the event (Constants.NEXT_EVENT_IS_*), used to dispatch without instanceof
+	public int heapIndex; // position in an IndexedEventHeap or NONE if the event is not stored in one
 
 	/**
 	 * class constructor
@@ -19,6 +23,8 @@ public class Event implements Comparable<Event>,  Serializable {
 	public Event(double time, int  nextAction){
 		this.time=time;
 		this.nextAction = nextAction;
+		this.heapIndex = Constants.NONE;
+		this.eventType = Constants.NEXT_EVENT_IS_NONE;
 	}
 	
 	/**
@@ -36,4 +42,11 @@ public class Event implements Comparable<Event>,  Serializable {
 	public boolean isEmpty() {
 		return time == Double.MAX_VALUE;
 	}
+
+	/**
+	 * returns the ID of the molecule affected by the event or NONE
+	 */
+	public int getMoleculeID() {
+		return Constants.NONE;
+	}
 }
@@ -18,21 +18,47 @@ public class EventList implements Serializable {
     public TFBindingEventQueue TFBindingEventQueue;
     public TFEventQueue TFRandomWalkEventQueue;
     public TFEventQueue TFRepressionEventQueue;
+    private IndexedEventHeap<Event> unifiedEvents; // all events in a single heap (null unless the list is unified)
+    // executed events of each molecule which are not referenced by any list anymore and can be reused
+    private ProteinEvent[] recycledProteinEvents;
+    private RepressionEvent[] recycledRepressionEvents;
+    private TFEventQueueCR compositionRejectionQueue; // events of bound molecules (null unless composition-rejection)
 
 
     public EventList(Cell n) {
 
         TFBindingEventQueue = new TFBindingEventQueue(n);
+        recycledProteinEvents = new ProteinEvent[n.dbp.length];
+        recycledRepressionEvents = new RepressionEvent[n.dbp.length];
 
         // TF random walk event list 1D diffusion
-        if (n.ip.EVENT_LIST_SUBGROUP_SIZE.value >= 0 && n.ip.EVENT_LIST_SUBGROUP_SIZE.value < n.dbp.length) {
-            //TFRandomWalkEventQueue =  new TFRandomWalkEventQueueFRopt(n);
-            n.printDebugInfo("Warning: clustered (optimal) First Reaction method is not implemented, " +
-                    "simple First Reaction method will be used");
-        } //else{
-        TFRandomWalkEventQueue = new TFRandomWalkEventQueueFR(n);
-        TFRepressionEventQueue = new TFRepressionEventQueueFR();
-        //}
+        if (n.ip.EVENT_LIST_TYPE.value.equals(Constants.EVENT_LIST_INDEXED_HEAP)) {
+            TFRandomWalkEventQueue = new TFRandomWalkEventQueueFRindexed(n);
+            TFRepressionEventQueue = new TFRepressionEventQueueFRindexed(n);
+        } else if (n.ip.EVENT_LIST_TYPE.value.equals(Constants.EVENT_LIST_NEXT_REACTION)) {
+            TFRandomWalkEventQueue = new TFRandomWalkEventQueueNRM(n);
+            TFRepressionEventQueue = new TFRepressionEventQueueFRindexed(n);
+        } else if (n.ip.EVENT_LIST_TYPE.value.equals(Constants.EVENT_LIST_UNIFIED)) {
+            unifiedEvents = new IndexedEventHeap<Event>(n.dbp.length + 1);
+            TFBindingEventQueue.setEventStore(unifiedEvents);
+            TFRandomWalkEventQueue = new TFEventQueueUnified(unifiedEvents, new TFRandomWalkEventQueueFR(n),
+                    Constants.NEXT_EVENT_IS_TF_RANDOM_WALK);
+            TFRepressionEventQueue = new TFEventQueueUnified(unifiedEvents, new TFRepressionEventQueueFR(),
+                    Constants.NEXT_EVENT_IS_TF_REPRESSION);
+        } else if (n.ip.EVENT_LIST_TYPE.value.equals(Constants.EVENT_LIST_COMPOSITION_REJECTION)) {
+            // the repression events of bound molecules are selected together with their random walk events; the
+            // repression list keeps only the derepression events of molecules which unbound while repressing
+            compositionRejectionQueue = new TFEventQueueCR(n);
+            TFRandomWalkEventQueue = compositionRejectionQueue;
+            TFRepressionEventQueue = new TFRepressionEventQueueFRindexed(n);
+        } else if (n.ip.EVENT_LIST_SUBGROUP_SIZE.value >= 0 && n.ip.EVENT_LIST_SUBGROUP_SIZE.value < n.dbp.length) {
+            // clustered (optimal) First Reaction method; a subgroup size of 0 selects sqrt(dbp.length)
+            TFRandomWalkEventQueue = new TFRandomWalkEventQueueFRopt(n);
+            TFRepressionEventQueue = new TFRepressionEventQueueFR();
+        } else {
+            TFRandomWalkEventQueue = new TFRandomWalkEventQueueFR(n);
+            TFRepressionEventQueue = new TFRepressionEventQueueFR();
+        }
     }
 
     /**
@@ -61,6 +87,10 @@ public class EventList implements Serializable {
      * returns a number which encodes whether the next event is TF binding ...?
      */
     public int getNextEventType() {
+        if (unifiedEvents != null) {
+            return unifiedEvents.isEmpty() ? Constants.NEXT_EVENT_IS_NONE : unifiedEvents.peek().eventType;
+        }
+
         int result = Constants.NEXT_EVENT_IS_NONE;
         double nextEventTime = Double.MAX_VALUE;
 
@@ -86,6 +116,10 @@ public class EventList implements Serializable {
      * returns the soonest event
      */
     public Event getNextEvent() {
+        if (unifiedEvents != null) {
+            return popNextUnifiedEvent();
+        }
+
         Event e = null;
         int nextEventType = getNextEventType();
 
@@ -96,7 +130,8 @@ public class EventList implements Serializable {
                 e = this.popNextTFBindingEvent();
                 break;
             case Constants.NEXT_EVENT_IS_TF_RANDOM_WALK:
-                e = this.popNextTFRandomWalkEvent();
+                // the composition-rejection list returns the repression events of bound molecules as well
+                e = TFRandomWalkEventQueue.pop();
                 break;
             case Constants.NEXT_EVENT_IS_TF_REPRESSION:
                 e = this.popNextTFRepressionEvent();
@@ -107,6 +142,28 @@ public class EventList implements Serializable {
         return e;
     }
 
+    /**
+     * pops the soonest event from the unified store and lets the queue of its type know that it was removed
+     */
+    private Event popNextUnifiedEvent() {
+        Event e = unifiedEvents.poll();
+        if (e != null) {
+            switch (e.eventType) {
+                case Constants.NEXT_EVENT_IS_TF_BINDING:
+                    TFBindingEventQueue.pop();
+                    break;
+                case Constants.NEXT_EVENT_IS_TF_RANDOM_WALK:
+                    ((TFEventQueueUnified) TFRandomWalkEventQueue).removedFromStore();
+                    break;
+                case Constants.NEXT_EVENT_IS_TF_REPRESSION:
+                    ((TFEventQueueUnified) TFRepressionEventQueue).removedFromStore();
+                    break;
+                default:
+            }
+        }
+        return e;
+    }
+
     /**
      * checks whether there is any event left in the entire list
      */
@@ -151,8 +208,9 @@ public class EventList implements Serializable {
                 int TFID = n.getFreeTFmolecule(nextTFspecies);
                 assert (TFID != Constants.NONE);
                 int position = Constants.NONE;
-                this.TFBindingEventQueue.add(new ProteinEvent(time + nextTime, TFID, position, true,
-                        Constants.EVENT_TF_BINDING, false, propensity));
+                ProteinEvent pe = this.getRecycledProteinEvent(TFID);
+                pe.set(time + nextTime, TFID, position, true, Constants.EVENT_TF_BINDING, false, propensity);
+                this.TFBindingEventQueue.add(pe);
             }
         }
     }
@@ -163,33 +221,96 @@ public class EventList implements Serializable {
     public void scheduleNextTFOnDNAEvent(Cell n, int moleculeID, double time) {
         double propensitySum, nextTime;
         // debug: check that there is no event for this molecule in the queue
-        if (n.isInDebugMode() && TFRandomWalkEventQueue instanceof TFRandomWalkEventQueueFR) {
-            for (ProteinEvent proteinEvent : ((TFRandomWalkEventQueueFR) this.TFRandomWalkEventQueue).randomWalkEvents) {
-                if (proteinEvent.proteinID == moleculeID) {
-                    n.stopSimulation("Error: attempted to schedule the event for the protein " + moleculeID
-                            + " of type " + n.TFspecies[n.dbp[moleculeID].speciesID].name + ", but it is already scheduled.");
-                }
+        if (n.isInDebugMode() && TFRandomWalkEventQueue.containsEventOf(moleculeID)) {
+            n.stopSimulation("Error: attempted to schedule the event for the protein " + moleculeID
+                    + " of type " + n.TFspecies[n.dbp[moleculeID].speciesID].name + ", but it is already scheduled.");
+        }
+        if (compositionRejectionQueue != null) {
+            if (!n.TFspecies[n.dbp[moleculeID].speciesID].isImmobile) {
+                compositionRejectionQueue.scheduleNextEvent(n, moleculeID,
+                        compositionRejectionQueue.createNextEvent(n, moleculeID, time));
             }
+            return;
         }
         if (!n.TFspecies[n.dbp[moleculeID].speciesID].isImmobile) {
-            ProteinEvent pe = (ProteinEvent) TFRandomWalkEventQueue.createNextEvent(n, moleculeID, time);
-            RepressionEvent re = (RepressionEvent) TFRepressionEventQueue.createNextEvent(n, moleculeID, time);
+            // only the chosen event is filled in, using the recycled event objects of the molecule. The random numbers
+            // are drawn in the same order as when both events were created, so a seed gives the same trajectory.
+            ProteinEvent pe = this.getRecycledProteinEvent(moleculeID);
+            double movePropensity = 0.0, repressionPropensity = 0.0;
+            if (n.dbp[moleculeID].getPosition() != Constants.NONE) {
+                movePropensity = n.dbp[moleculeID].getMoveRate();
+                Gillespie.skipNextReactionTime(n.randomGenerator); // time of the random walk event, drawn below
+                pe.set(time, moleculeID, Constants.NONE, true, Constants.NONE, false, movePropensity);
+                TFRandomWalkEventQueueFR.setNextAction(n, moleculeID, pe);
+            }
+            if (n.dbp[moleculeID].getRepressionEventRate() >= Constants.DOUBLE_ZERO) {
+                repressionPropensity = n.dbp[moleculeID].getRepressionEventRate();
+                Gillespie.skipNextReactionTime(n.randomGenerator); // time of the repression event, drawn below
+            }
             // decrease movement rate if the TF is repressing DNA
             if (n.dbp[moleculeID].isRepressingDNA()) {
-                pe.propensity /= n.TFspecies[n.dbp[moleculeID].speciesID].repressionAttenuationFactor;
+                movePropensity /= n.TFspecies[n.dbp[moleculeID].speciesID].repressionAttenuationFactor;
+                pe.propensity = movePropensity;
             }
-            propensitySum = Math.min(pe.propensity + re.propensity, Double.MAX_VALUE);
+            propensitySum = Math.min(movePropensity + repressionPropensity, Double.MAX_VALUE);
             if (propensitySum > 0) {
                 nextTime = Gillespie.computeNextReactionTime(propensitySum, n.randomGenerator);
-                if (n.randomGenerator.nextDouble() * propensitySum < pe.propensity) {
+                if (n.randomGenerator.nextDouble() * propensitySum < movePropensity) {
                     pe.time = time + nextTime;
                     TFRandomWalkEventQueue.scheduleNextEvent(n, moleculeID, pe);
-                } else {
-                    re.time = time + nextTime;
-                    TFRepressionEventQueue.scheduleNextEvent(n, moleculeID, re);
+                    return;
                 }
+                RepressionEvent re = this.getRecycledRepressionEvent(moleculeID);
+                TFRepressionEventQueueFR.setNextAction(n, moleculeID, time + nextTime, repressionPropensity, re);
+                TFRepressionEventQueue.scheduleNextEvent(n, moleculeID, re);
             }
+            recycledProteinEvents[moleculeID] = pe;
+        }
+    }
+
+    /**
+     * returns an event which was executed and is no longer used, so that its object can be reused for the next events
+     * of the same molecule
+     */
+    public void recycleEvent(Event e) {
+        // the composition-rejection list keeps its own event objects, which must not be shared with the binding event
+        if (compositionRejectionQueue != null && e.eventType != Constants.NEXT_EVENT_IS_TF_BINDING) {
+            return;
+        }
+        switch (e.eventType) {
+            case Constants.NEXT_EVENT_IS_TF_BINDING:
+            case Constants.NEXT_EVENT_IS_TF_RANDOM_WALK:
+                recycledProteinEvents[((ProteinEvent) e).proteinID] = (ProteinEvent) e;
+                break;
+            case Constants.NEXT_EVENT_IS_TF_REPRESSION:
+                recycledRepressionEvents[((RepressionEvent) e).proteinID] = (RepressionEvent) e;
+                break;
+            default:
+        }
+    }
+
+    /**
+     * returns a free protein event object of a molecule (a new one if none was recycled)
+     */
+    private ProteinEvent getRecycledProteinEvent(int moleculeID) {
+        ProteinEvent pe = recycledProteinEvents[moleculeID];
+        if (pe == null) {
+            return new ProteinEvent();
+        }
+        recycledProteinEvents[moleculeID] = null;
+        return pe;
+    }
+
+    /**
+     * returns a free repression event object of a molecule (a new one if none was recycled)
+     */
+    private RepressionEvent getRecycledRepressionEvent(int moleculeID) {
+        RepressionEvent re = recycledRepressionEvents[moleculeID];
+        if (re == null) {
+            return new RepressionEvent();
         }
+        recycledRepressionEvents[moleculeID] = null;
+        return re;
     }
 
     /**
@@ -0,0 +1,202 @@
+package event;
+
+import utils.Constants;
+
+import java.io.Serializable;
+
+/**
+ * binary min-heap of events ordered by (time, event type, molecule ID). Each event stores its own position in the heap, so an event which is
+ * referenced from the molecule (DBP.pe or DBP.re) can be removed or re-keyed in O(log n) instead of the linear scan
+ * required by java.util.PriorityQueue.remove
+ *
+ * @param <E> the type of the stored events
+ */
+public class IndexedEventHeap<E extends Event> implements Serializable {
+
+    private static final long serialVersionUID = -3209761745320784853L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Event[] heap;
+    private int size;
+
+    /**
+     * class constructor
+     *
+     * @param capacity the expected maximum number of events in the heap
+     */
+    public IndexedEventHeap(int capacity) {
+        this.heap = new Event[Math.max(capacity, INITIAL_CAPACITY)];
+        this.size = 0;
+    }
+
+    /**
+     * adds a new event to the heap
+     */
+    public void add(E e) {
+        if (size == heap.length) {
+            Event[] newHeap = new Event[2 * heap.length];
+            System.arraycopy(heap, 0, newHeap, 0, size);
+            heap = newHeap;
+        }
+        heap[size] = e;
+        e.heapIndex = size;
+        size++;
+        siftUp(e.heapIndex);
+    }
+
+    /**
+     * returns the soonest event without removing it
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return size == 0 ? null : (E) heap[0];
+    }
+
+    /**
+     * returns the soonest event and removes it from the heap
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        if (size == 0) {
+            return null;
+        }
+        E result = (E) heap[0];
+        removeAt(0);
+        return result;
+    }
+
+    /**
+     * removes an event from the heap
+     *
+     * @return true if the event was in the heap and false otherwise
+     */
+    public boolean remove(E e) {
+        if (!contains(e)) {
+            return false;
+        }
+        removeAt(e.heapIndex);
+        return true;
+    }
+
+    /**
+     * restores the heap order after the time of an event which is in the heap has been changed (works both for
+     * decrease and increase key)
+     *
+     * @return true if the event was in the heap and false otherwise
+     */
+    public boolean update(E e) {
+        if (!contains(e)) {
+            return false;
+        }
+        int i = e.heapIndex;
+        siftUp(i);
+        if (heap[i] == e) {
+            siftDown(i);
+        }
+        return true;
+    }
+
+    /**
+     * returns true if the event is currently stored in this heap
+     */
+    public boolean contains(E e) {
+        return e != null && e.heapIndex >= 0 && e.heapIndex < size && heap[e.heapIndex] == e;
+    }
+
+    /**
+     * returns the event stored at a position in the heap (the order is not the time order)
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int i) {
+        return (E) heap[i];
+    }
+
+    /**
+     * returns the number of events in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns true if the heap is empty or false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * removes the event stored at position i
+     */
+    private void removeAt(int i) {
+        Event removed = heap[i];
+        size--;
+        if (i != size) {
+            Event last = heap[size];
+            heap[i] = last;
+            last.heapIndex = i;
+            siftUp(i);
+            if (heap[i] == last) {
+                siftDown(i);
+            }
+        }
+        heap[size] = null;
+        removed.heapIndex = Constants.NONE;
+    }
+
+    /**
+     * returns true if event a has to be executed before event b. Events with the same time are ordered by type and
+     * then by molecule, so the order does not depend on the insertion history
+     */
+    private static boolean precedes(Event a, Event b) {
+        if (a.time != b.time) {
+            return a.time < b.time;
+        }
+        if (a.eventType != b.eventType) {
+            return a.eventType < b.eventType;
+        }
+        return a.getMoleculeID() < b.getMoleculeID();
+    }
+
+    /**
+     * moves the event at position i up until its parent is not later than it
+     */
+    private void siftUp(int i) {
+        Event e = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!precedes(e, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heap[i].heapIndex = i;
+            i = parent;
+        }
+        heap[i] = e;
+        e.heapIndex = i;
+    }
+
+    /**
+     * moves the event at position i down until none of its children is sooner than it
+     */
+    private void siftDown(int i) {
+        Event e = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && precedes(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!precedes(heap[child], e)) {
+                break;
+            }
+            heap[i] = heap[child];
+            heap[i].heapIndex = i;
+            i = child;
+        }
+        heap[i] = e;
+        e.heapIndex = i;
+    }
+
+}
@@ -41,6 +41,39 @@ public class ProteinEvent extends Event {
         this.isTF = isTF;
         this.isHoppingEvent = isHoppingEvent;
         this.propensity = propensity;
+        this.eventType = nextAction == Constants.EVENT_TF_BINDING ? Constants.NEXT_EVENT_IS_TF_BINDING
+                : Constants.NEXT_EVENT_IS_TF_RANDOM_WALK;
+    }
+
+    /**
+     * overwrites all the fields of the event, so that the event objects of a molecule can be recycled
+     */
+    public void set(double time, int proteinID, int position, boolean isTF, int nextAction, boolean isHoppingEvent,
+                    double propensity) {
+        this.time = time;
+        this.nextAction = nextAction;
+        this.proteinID = proteinID;
+        this.position = position;
+        this.isTF = isTF;
+        this.isHoppingEvent = isHoppingEvent;
+        this.propensity = propensity;
+        this.eventType = nextAction == Constants.EVENT_TF_BINDING ? Constants.NEXT_EVENT_IS_TF_BINDING
+                : Constants.NEXT_EVENT_IS_TF_RANDOM_WALK;
+    }
+
+    /**
+     * turns the event into an empty one
+     */
+    public void clear() {
+        set(Double.MAX_VALUE, Constants.NONE, Constants.NONE, false, Constants.NONE, false, 0.0);
+        this.eventType = Constants.NEXT_EVENT_IS_NONE;
+    }
+
+    /**
+     * returns the ID of the protein affected by the event
+     */
+    public int getMoleculeID() {
+        return proteinID;
     }
 
     /**
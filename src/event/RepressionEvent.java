@@ -28,6 +28,37 @@ public class RepressionEvent extends Event {
         this.boundaryRight = boundaryRight;
         this.propensity = propensity;
         this.scheduleNextEvent = scheduleNextEvent;
+        this.eventType = Constants.NEXT_EVENT_IS_TF_REPRESSION;
+    }
+
+    /**
+     * overwrites all the fields of the event, so that the event objects of a molecule can be recycled
+     */
+    public void set(double time, int nextAction, int proteinID, int boundaryLeft, int boundaryRight,
+                    double propensity, boolean scheduleNextEvent) {
+        this.time = time;
+        this.nextAction = nextAction;
+        this.proteinID = proteinID;
+        this.boundaryLeft = boundaryLeft;
+        this.boundaryRight = boundaryRight;
+        this.propensity = propensity;
+        this.scheduleNextEvent = scheduleNextEvent;
+        this.eventType = Constants.NEXT_EVENT_IS_TF_REPRESSION;
+    }
+
+    /**
+     * turns the event into an empty one
+     */
+    public void clear() {
+        set(Double.MAX_VALUE, Constants.NONE, Constants.NONE, Constants.NONE, Constants.NONE, 0.0, false);
+        this.eventType = Constants.NEXT_EVENT_IS_NONE;
+    }
+
+    /**
+     * returns the ID of the repressor
+     */
+    public int getMoleculeID() {
+        return proteinID;
     }
 
     public String toString() {
@@ -1,6 +1,8 @@
 package event;
 
 import environment.Cell;
+import utils.Constants;
+import utils.Gillespie;
 
 import java.io.Serializable;
 
@@ -16,11 +18,17 @@ public class TFBindingEventQueue implements Serializable {
     protected double[] proteinBindingPropensity;
     protected double proteinBindingPropensitySum;
     private ProteinEvent bindingEvent;
+    private IndexedEventHeap<Event> eventStore; // the unified event store or null if the event is kept only here
+    // the DNA availability sums and free molecule counts from which the propensities were last computed
+    private int[] availabilitySumUsed;
+    private int[] freeMoleculesUsed;
 
     public TFBindingEventQueue(Cell n) {
         this.bindingEvent = null;
         this.proteinBindingPropensitySum = 0;
         this.proteinBindingPropensity = new double[n.getNoOfDBPspecies()];
+        this.availabilitySumUsed = new int[proteinBindingPropensity.length];
+        this.freeMoleculesUsed = new int[proteinBindingPropensity.length];
         for (int i = 0; i < proteinBindingPropensity.length; i++) {
             this.proteinBindingPropensity[i] = computePropensity(i, n);
             this.proteinBindingPropensitySum += this.proteinBindingPropensity[i];
@@ -40,7 +48,7 @@ public class TFBindingEventQueue implements Serializable {
      */
     public ProteinEvent pop() {
         ProteinEvent pe = bindingEvent;
-        bindingEvent = null;
+        this.clear();
         return pe;
     }
 
@@ -50,7 +58,18 @@ public class TFBindingEventQueue implements Serializable {
      * @param pe the new event
      */
     public void add(ProteinEvent pe) {
+        this.clear();
         bindingEvent = pe;
+        if (eventStore != null) {
+            eventStore.add(pe);
+        }
+    }
+
+    /**
+     * keeps the binding event also in the unified event store of the event list
+     */
+    public void setEventStore(IndexedEventHeap<Event> eventStore) {
+        this.eventStore = eventStore;
     }
 
 
@@ -90,6 +109,9 @@ public class TFBindingEventQueue implements Serializable {
      * deletes current protein binding event
      */
     public void clear() {
+        if (eventStore != null && bindingEvent != null) {
+            eventStore.remove(bindingEvent);
+        }
         this.bindingEvent = null;
     }
 
@@ -102,13 +124,78 @@ public class TFBindingEventQueue implements Serializable {
         }
         this.proteinBindingPropensitySum = 0;
         for (int i = 0; i < proteinBindingPropensity.length; i++) {
-            this.proteinBindingPropensity[i] = computePropensity(i, n);
+            this.updatePropensity(i, n);
             this.proteinBindingPropensitySum += this.proteinBindingPropensity[i];
         }
         //when the propensities are updated the binding is deleted in order to force its regeneration in the simulator
         this.clear();
     }
 
+    /**
+     * updates only the propensities of the species whose DNA availability or number of free molecules changed since
+     * they were last computed (e.g. after the DNA was repressed or derepressed). The scheduled binding event is kept:
+     * its remaining waiting time is rescaled by oldSum/newSum and, since the weights of the species changed, the
+     * species which binds is drawn again.
+     *
+     * @param time the current time
+     */
+    public void updateChangedProteinBindingPropensities(Cell n, double time) {
+        double oldPropensitySum = this.proteinBindingPropensitySum;
+        boolean changed = false;
+        for (int i = 0; i < proteinBindingPropensity.length; i++) {
+            if (availabilitySumUsed[i] != n.dna.effectiveTFavailabilitySum[i]
+                    || freeMoleculesUsed[i] != n.freeTFmolecules.get(i).size()) {
+                this.proteinBindingPropensitySum -= this.proteinBindingPropensity[i];
+                this.updatePropensity(i, n);
+                this.proteinBindingPropensitySum += this.proteinBindingPropensity[i];
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        if (n.isInDebugMode()) {
+            n.printDebugInfo("Partial update of TF binding propensities");
+        }
+        // avoid a rounding residue of the running sum when (almost) all the propensities vanished
+        if (this.proteinBindingPropensitySum < Constants.DOUBLE_ZERO) {
+            this.proteinBindingPropensitySum = this.propensitySum();
+        }
+
+        if (bindingEvent == null) {
+            return;
+        }
+        int nextTFspecies = Constants.NONE;
+        if (n.freeTFmoleculesTotal > 0 && oldPropensitySum > 0 && this.proteinBindingPropensitySum > 0
+                && bindingEvent.time >= time) {
+            nextTFspecies = Gillespie.getNextReaction(
+                    this.proteinBindingPropensitySum * n.randomGenerator.nextDouble(), this.proteinBindingPropensity);
+        }
+        int TFID = Constants.NONE;
+        if (nextTFspecies > Constants.NONE && nextTFspecies < n.TFspecies.length) {
+            TFID = n.getFreeTFmolecule(nextTFspecies);
+        }
+        if (TFID == Constants.NONE) {
+            this.clear();
+            return;
+        }
+        bindingEvent.time = time + (bindingEvent.time - time) * (oldPropensitySum / this.proteinBindingPropensitySum);
+        bindingEvent.proteinID = TFID;
+        bindingEvent.propensity = this.proteinBindingPropensitySum;
+        if (eventStore != null) {
+            eventStore.update(bindingEvent);
+        }
+    }
+
+    /**
+     * recomputes the propensity of a species and remembers the values it was computed from
+     */
+    private void updatePropensity(int TFspeciesID, Cell n) {
+        this.proteinBindingPropensity[TFspeciesID] = computePropensity(TFspeciesID, n);
+        this.availabilitySumUsed[TFspeciesID] = n.dna.effectiveTFavailabilitySum[TFspeciesID];
+        this.freeMoleculesUsed[TFspeciesID] = n.freeTFmolecules.get(TFspeciesID).size();
+    }
+
 
     /**
      * computes the propensity of binding a TF to the DNA
@@ -30,4 +30,9 @@ public abstract class TFEventQueue implements Serializable {
 
     public abstract void updateNextEvent(Cell n, int moleculeID, double time);
 
+    /**
+     * returns true if an event of the molecule is in the list (used for debugging)
+     */
+    public abstract boolean containsEventOf(int moleculeID);
+
 }
@@ -0,0 +1,306 @@
+package event;
+
+import environment.Cell;
+import utils.Constants;
+import utils.Gillespie;
+
+import java.util.Arrays;
+
+/**
+ * event list of the bound molecules using the composition-rejection SSA (Slepoy, Thompson and Plimpton). Instead of
+ * keeping a putative time for each molecule, the list keeps the total rate of each bound molecule (random walk plus
+ * repression) in bins of rates within a power of two [2^k, 2^(k+1)). The next event is drawn as in the Direct Method:
+ * a bin is chosen proportionally to its rate sum and a molecule inside the bin by rejection, which accepts with
+ * probability at least 1/2. Both steps do not depend on the number of molecules, only on the number of non-empty bins,
+ * which is bounded by the range of the move rates.
+ *
+ * The next event is generated lazily when the list is peeked and it is discarded whenever a rate in the list changes.
+ * Since the waiting times are exponential it is then drawn again from the time of the change.
+ * The events of a molecule are reused, so popping does not allocate new objects.
+ */
+public class TFEventQueueCR extends TFEventQueue {
+
+    private static final long serialVersionUID = 2871054463212709816L;
+    // bins cover all binary exponents of positive doubles (subnormal numbers share the lowest bin)
+    private static final int EXPONENT_OFFSET = -Double.MIN_EXPONENT + 1;
+    private static final int BINS_NO = Double.MAX_EXPONENT + EXPONENT_OFFSET + 1;
+    private static final int INITIAL_BIN_CAPACITY = 16;
+    // the bin sums are recomputed after this many changes to remove the accumulated rounding errors
+    private static final int RECOMPUTE_SUMS_EVERY = 1 << 20;
+
+    private final double[] moveRate;
+    private final double[] repressionRate;
+    private final double[] rate;
+    private final int[] bin;
+    private final int[] positionInBin;
+
+    private final int[][] binMembers;
+    private final int[] binSize;
+    private final double[] binSum;
+    private final int[] activeBins;
+    private final int[] positionInActiveBins;
+    private int activeBinsNo;
+
+    private int size;
+    private int changesNo;
+    private final Cell n; // the rates are only known to the list, so the next event is generated when it is peeked
+
+    // the next event is valid until a rate changes
+    private Event nextEvent;
+    private double referenceTime;
+    private final ProteinEvent[] proteinEvents;
+    private final RepressionEvent[] repressionEvents;
+
+    /**
+     * class constructor. Initialises the event list
+     */
+    public TFEventQueueCR(Cell n) {
+        this.n = n;
+        int moleculesNo = n.dbp.length;
+        moveRate = new double[moleculesNo];
+        repressionRate = new double[moleculesNo];
+        rate = new double[moleculesNo];
+        bin = new int[moleculesNo];
+        positionInBin = new int[moleculesNo];
+        Arrays.fill(bin, Constants.NONE);
+
+        binMembers = new int[BINS_NO][];
+        binSize = new int[BINS_NO];
+        binSum = new double[BINS_NO];
+        activeBins = new int[BINS_NO];
+        positionInActiveBins = new int[BINS_NO];
+        activeBinsNo = 0;
+
+        proteinEvents = new ProteinEvent[moleculesNo];
+        repressionEvents = new RepressionEvent[moleculesNo];
+        size = 0;
+        changesNo = 0;
+        nextEvent = null;
+        referenceTime = 0.0;
+    }
+
+    /**
+     * adds a molecule to the list using the propensity of the event as its random walk rate and no repression
+     */
+    public void add(Event e) {
+        if (e instanceof ProteinEvent) {
+            ProteinEvent pe = (ProteinEvent) e;
+            setRates(pe.proteinID, pe.propensity, 0.0, pe.time);
+        }
+    }
+
+    /**
+     * returns the next event without removing it
+     */
+    public Event peek() {
+        if (size == 0) {
+            return null;
+        }
+        if (nextEvent == null) {
+            nextEvent = this.generateNextEvent();
+        }
+        return nextEvent;
+    }
+
+    /**
+     * returns the next event and removes its molecule from the list. The molecule is added back when its next event is
+     * scheduled
+     */
+    public Event pop() {
+        Event e = this.peek();
+        if (e != null) {
+            this.removeMolecule(e.getMoleculeID(), e.time);
+        }
+        return e;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * returns the random walk event object of a molecule with its current move rate. The time is not drawn, since the
+     * list only needs the rates of the molecule
+     */
+    public Event createNextEvent(Cell n, int moleculeID, double time) {
+        ProteinEvent pe = this.getProteinEvent(moleculeID);
+        pe.set(time, moleculeID, Constants.NONE, true, Constants.NONE, false, n.dbp[moleculeID].getMoveRate());
+        return pe;
+    }
+
+    /**
+     * adds a bound molecule to the list with its current random walk and repression rates; the event itself is not used
+     */
+    public void scheduleNextEvent(Cell n, int moleculeID, Event e) {
+        double time = e != null ? e.time : referenceTime;
+        double move = 0.0, repression = 0.0;
+        if (n.dbp[moleculeID].getPosition() != Constants.NONE) {
+            move = n.dbp[moleculeID].getMoveRate();
+            if (n.dbp[moleculeID].isRepressingDNA()) {
+                move /= n.TFspecies[n.dbp[moleculeID].speciesID].repressionAttenuationFactor;
+            }
+            if (n.dbp[moleculeID].getRepressionEventRate() >= Constants.DOUBLE_ZERO) {
+                repression = n.dbp[moleculeID].getRepressionEventRate();
+            }
+        }
+        n.dbp[moleculeID].pe = this.getProteinEvent(moleculeID);
+        n.dbp[moleculeID].re = null;
+        setRates(moleculeID, move, repression, time);
+    }
+
+    /**
+     * updates the rates of a molecule which is in the list
+     */
+    public void updateNextEvent(Cell n, int moleculeID, double time) {
+        if (bin[moleculeID] != Constants.NONE) {
+            ProteinEvent pe = this.getProteinEvent(moleculeID);
+            pe.time = time;
+            this.scheduleNextEvent(n, moleculeID, pe);
+        }
+    }
+
+    public boolean containsEventOf(int moleculeID) {
+        return bin[moleculeID] != Constants.NONE;
+    }
+
+    /**
+     * generates the next event from the current rates: the waiting time, the molecule and which of its events
+     * (random walk or repression) takes place
+     */
+    private Event generateNextEvent() {
+        double totalRate = 0.0;
+        for (int i = 0; i < activeBinsNo; i++) {
+            totalRate += binSum[activeBins[i]];
+        }
+        double time = referenceTime + Gillespie.computeNextReactionTime(totalRate, n.randomGenerator);
+
+        // composition: choose the bin proportionally to its rate sum
+        double value = n.randomGenerator.nextDouble() * totalRate;
+        int k = activeBins[activeBinsNo - 1];
+        for (int i = 0; i < activeBinsNo; i++) {
+            value -= binSum[activeBins[i]];
+            if (value < 0) {
+                k = activeBins[i];
+                break;
+            }
+        }
+
+        // rejection: choose a molecule of the bin uniformly and accept it with probability rate/2^(k+1)
+        int exponent = k - EXPONENT_OFFSET + 1;
+        int moleculeID;
+        do {
+            moleculeID = binMembers[k][(int) (n.randomGenerator.nextDouble() * binSize[k])];
+        } while (n.randomGenerator.nextDouble() >= Math.scalb(rate[moleculeID], -exponent));
+
+        // choose the event of the molecule
+        if (n.randomGenerator.nextDouble() * rate[moleculeID] < moveRate[moleculeID]) {
+            ProteinEvent pe = this.getProteinEvent(moleculeID);
+            pe.set(time, moleculeID, Constants.NONE, true, Constants.NONE, false, moveRate[moleculeID]);
+            TFRandomWalkEventQueueFR.setNextAction(n, moleculeID, pe);
+            return pe;
+        }
+        RepressionEvent re = this.getRepressionEvent(moleculeID);
+        TFRepressionEventQueueFR.setNextAction(n, moleculeID, time, repressionRate[moleculeID], re);
+        return re;
+    }
+
+    /**
+     * sets the rates of a molecule and moves it to the bin of its total rate
+     */
+    private void setRates(int moleculeID, double move, double repression, double time) {
+        double total = Math.min(move + repression, Double.MAX_VALUE);
+        this.removeMolecule(moleculeID, time);
+        if (total > 0) {
+            moveRate[moleculeID] = move;
+            repressionRate[moleculeID] = repression;
+            rate[moleculeID] = total;
+            this.addToBin(moleculeID, Math.getExponent(total) + EXPONENT_OFFSET);
+            size++;
+        }
+        this.ratesChanged(time);
+    }
+
+    /**
+     * removes a molecule from the list (nothing happens if it is not in the list)
+     */
+    private void removeMolecule(int moleculeID, double time) {
+        int k = bin[moleculeID];
+        if (k != Constants.NONE) {
+            int last = binMembers[k][binSize[k] - 1];
+            binMembers[k][positionInBin[moleculeID]] = last;
+            positionInBin[last] = positionInBin[moleculeID];
+            binSize[k]--;
+            binSum[k] -= rate[moleculeID];
+            if (binSize[k] == 0) {
+                binSum[k] = 0.0;
+                int lastBin = activeBins[activeBinsNo - 1];
+                activeBins[positionInActiveBins[k]] = lastBin;
+                positionInActiveBins[lastBin] = positionInActiveBins[k];
+                activeBinsNo--;
+            }
+            bin[moleculeID] = Constants.NONE;
+            rate[moleculeID] = 0.0;
+            size--;
+            this.ratesChanged(time);
+        }
+    }
+
+    /**
+     * adds a molecule to a bin
+     */
+    private void addToBin(int moleculeID, int k) {
+        if (binMembers[k] == null) {
+            binMembers[k] = new int[INITIAL_BIN_CAPACITY];
+        } else if (binSize[k] == binMembers[k].length) {
+            binMembers[k] = Arrays.copyOf(binMembers[k], 2 * binSize[k]);
+        }
+        if (binSize[k] == 0) {
+            positionInActiveBins[k] = activeBinsNo;
+            activeBins[activeBinsNo] = k;
+            activeBinsNo++;
+        }
+        binMembers[k][binSize[k]] = moleculeID;
+        positionInBin[moleculeID] = binSize[k];
+        binSize[k]++;
+        binSum[k] += rate[moleculeID];
+        bin[moleculeID] = k;
+    }
+
+    /**
+     * discards the pending event after a change of the rates at the specified time
+     */
+    private void ratesChanged(double time) {
+        nextEvent = null;
+        referenceTime = time;
+        changesNo++;
+        if (changesNo >= RECOMPUTE_SUMS_EVERY) {
+            changesNo = 0;
+            for (int i = 0; i < activeBinsNo; i++) {
+                int k = activeBins[i];
+                binSum[k] = 0.0;
+                for (int j = 0; j < binSize[k]; j++) {
+                    binSum[k] += rate[binMembers[k][j]];
+                }
+            }
+        }
+    }
+
+    private ProteinEvent getProteinEvent(int moleculeID) {
+        if (proteinEvents[moleculeID] == null) {
+            proteinEvents[moleculeID] = new ProteinEvent();
+        }
+        return proteinEvents[moleculeID];
+    }
+
+    private RepressionEvent getRepressionEvent(int moleculeID) {
+        if (repressionEvents[moleculeID] == null) {
+            repressionEvents[moleculeID] = new RepressionEvent();
+        }
+        return repressionEvents[moleculeID];
+    }
+
+}
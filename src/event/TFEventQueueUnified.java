@@ -0,0 +1,118 @@
+package event;
+
+import environment.Cell;
+import utils.Constants;
+
+/**
+ * view of the unified event store for one type of events (random walk or repression). The events of all types are
+ * kept in a single heap ordered by (time, type, molecule) and the event list pops it once per step. The events are
+ * created by the First Reaction queue of the same type.
+ */
+public class TFEventQueueUnified extends TFEventQueue {
+
+    private static final long serialVersionUID = 4370129848620263158L;
+    private final IndexedEventHeap<Event> eventStore;
+    private final TFEventQueue eventFactory;
+    private final int eventType;
+    private int size;
+
+    /**
+     * class constructor
+     *
+     * @param eventStore   the heap shared by all event types
+     * @param eventFactory the queue used to create the events of this type
+     * @param eventType    the type of the events (Constants.NEXT_EVENT_IS_*)
+     */
+    public TFEventQueueUnified(IndexedEventHeap<Event> eventStore, TFEventQueue eventFactory, int eventType) {
+        this.eventStore = eventStore;
+        this.eventFactory = eventFactory;
+        this.eventType = eventType;
+        this.size = 0;
+    }
+
+    public void add(Event e) {
+        eventStore.add(e);
+        size++;
+    }
+
+    /**
+     * returns the soonest event of this type. This scans the store and it is meant only for clean-up code; the
+     * simulation pops the store through EventList.getNextEvent
+     */
+    public Event peek() {
+        Event result = null;
+        for (int i = 0; i < eventStore.size(); i++) {
+            Event e = eventStore.get(i);
+            if (e.eventType == eventType && (result == null || e.time < result.time)) {
+                result = e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * returns the soonest event of this type and removes it from the store (see peek)
+     */
+    public Event pop() {
+        Event e = peek();
+        if (e != null) {
+            eventStore.remove(e);
+            size--;
+        }
+        return e;
+    }
+
+    /**
+     * called by the event list once it popped an event of this type directly from the store
+     */
+    void removedFromStore() {
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Event createNextEvent(Cell n, int moleculeID, double time) {
+        return eventFactory.createNextEvent(n, moleculeID, time);
+    }
+
+    public void scheduleNextEvent(Cell n, int moleculeID, Event e) {
+        if (!e.isEmpty()) {
+            if (eventType == Constants.NEXT_EVENT_IS_TF_REPRESSION) {
+                n.dbp[moleculeID].pe = null;
+                n.dbp[moleculeID].re = (RepressionEvent) e;
+            } else {
+                n.dbp[moleculeID].pe = (ProteinEvent) e;
+                n.dbp[moleculeID].re = null;
+            }
+            this.add(e);
+        }
+    }
+
+    public void updateNextEvent(Cell n, int moleculeID, double time) {
+        Event current = eventType == Constants.NEXT_EVENT_IS_TF_REPRESSION ? n.dbp[moleculeID].re
+                : n.dbp[moleculeID].pe;
+        // the object may already be reused by the molecule for an event of another type
+        if (current != null && current.eventType == eventType && eventStore.remove(current)) {
+            size--;
+            Event e = this.createNextEvent(n, moleculeID, time);
+            this.scheduleNextEvent(n, moleculeID, e);
+        }
+    }
+
+    public boolean containsEventOf(int moleculeID) {
+        for (int i = 0; i < eventStore.size(); i++) {
+            Event e = eventStore.get(i);
+            if (e.eventType == eventType && e.getMoleculeID() == moleculeID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -70,40 +70,69 @@ public class TFRandomWalkEventQueueFR extends TFEventQueue {
         return randomWalkEvents.size();
     }
 
+    /**
+     * returns true if an event of the molecule is in the list
+     */
+    public boolean containsEventOf(int moleculeID) {
+        for (ProteinEvent pe : randomWalkEvents) {
+            if (pe.proteinID == moleculeID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public ProteinEvent createNextEvent(Cell n, int moleculeID, double time) {
-        if (n.dbp[moleculeID].getPosition() != Constants.NONE) {
+        return this.createNextEvent(n, moleculeID, time, new ProteinEvent());
+    }
 
-            int position = n.dbp[moleculeID].getPosition();
-            int newPosition = position;
-            int nextAction = Constants.NONE;
-            int speciesID = n.dbp[moleculeID].speciesID;
-            int direction = n.dbp[moleculeID].getDirection();
-            boolean isHoppingEvent = false;
+    /**
+     * creates the next random walk event of a molecule in the supplied event object, which has to be outside of any
+     * event list. If the molecule is not bound the event becomes empty.
+     */
+    public ProteinEvent createNextEvent(Cell n, int moleculeID, double time, ProteinEvent pe) {
+        if (n.dbp[moleculeID].getPosition() != Constants.NONE) {
             double propensity = n.dbp[moleculeID].getMoveRate();
             double nextTime = Gillespie.computeNextReactionTime(propensity, n.randomGenerator);
-            double randomNumber = n.randomGenerator.nextDouble() * n.TFspecies[speciesID].slideRightNo;
-
-            if (randomNumber < n.TFspecies[speciesID].jumpNo) {
-                nextAction = Constants.EVENT_TF_RANDOM_WALK_JUMP;
-                newPosition = Constants.NONE;
-            } else if (randomNumber < n.TFspecies[speciesID].hopNo) {
-                isHoppingEvent = true;
-                nextAction = Constants.EVENT_TF_RANDOM_WALK_HOP;
-                newPosition = Utils.generateNextNormalDistributedInteger(n.randomGenerator, position,
-                        n.TFspecies[speciesID].hopSTDdisplacement);
-            } else if (randomNumber < n.dna.TFSlideLeftNo[speciesID][position][direction]) {
-                nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_LEFT;
-                newPosition = position - n.TFspecies[speciesID].stepLeftSize;
-            } else if (randomNumber < n.dna.TFSlideRightNo[speciesID][position][direction]) {
-                nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_RIGHT;
-                newPosition = position + n.TFspecies[speciesID].stepRightSize;
-            }
+            pe.set(time + nextTime, moleculeID, Constants.NONE, true, Constants.NONE, false, propensity);
+            setNextAction(n, moleculeID, pe);
+        } else {
+            pe.clear();
+        }
+        return pe;
+    }
 
-            return new ProteinEvent(time + nextTime, moleculeID, newPosition, true, nextAction, isHoppingEvent,
-                    propensity);
+    /**
+     * draws the next random walk action of a bound molecule (jump, hop or slide) and the position where it leads
+     */
+    public static void setNextAction(Cell n, int moleculeID, ProteinEvent pe) {
+        int position = n.dbp[moleculeID].getPosition();
+        int newPosition = position;
+        int nextAction = Constants.NONE;
+        int speciesID = n.dbp[moleculeID].speciesID;
+        int direction = n.dbp[moleculeID].getDirection();
+        boolean isHoppingEvent = false;
+        double randomNumber = n.randomGenerator.nextDouble() * n.TFspecies[speciesID].slideRightNo;
+
+        if (randomNumber < n.TFspecies[speciesID].jumpNo) {
+            nextAction = Constants.EVENT_TF_RANDOM_WALK_JUMP;
+            newPosition = Constants.NONE;
+        } else if (randomNumber < n.TFspecies[speciesID].hopNo) {
+            isHoppingEvent = true;
+            nextAction = Constants.EVENT_TF_RANDOM_WALK_HOP;
+            newPosition = Utils.generateNextNormalDistributedInteger(n.randomGenerator, position,
+                    n.TFspecies[speciesID].hopSTDdisplacement);
+        } else if (randomNumber < n.dna.getTFSlideLeftNo(speciesID, position, direction)) {
+            nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_LEFT;
+            newPosition = position - n.TFspecies[speciesID].stepLeftSize;
+        } else if (randomNumber < n.dna.getTFSlideRightNo(speciesID, position, direction)) {
+            nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_RIGHT;
+            newPosition = position + n.TFspecies[speciesID].stepRightSize;
         }
 
-        return new ProteinEvent();
+        pe.position = newPosition;
+        pe.nextAction = nextAction;
+        pe.isHoppingEvent = isHoppingEvent;
     }
 
     /**
@@ -126,7 +155,7 @@ public class TFRandomWalkEventQueueFR extends TFEventQueue {
     public void updateNextEvent(Cell n, int moleculeID, double time) {
         boolean removed = this.randomWalkEvents.remove(n.dbp[moleculeID].pe);
         if (removed) {
-            ProteinEvent pe = this.createNextEvent(n, moleculeID, time);
+            ProteinEvent pe = this.createNextEvent(n, moleculeID, time, n.dbp[moleculeID].pe);
             this.scheduleNextEvent(n, moleculeID, pe);
         }
     }
@@ -0,0 +1,83 @@
+package event;
+
+import environment.Cell;
+
+/**
+ * random walk event class using First Reaction method, where the events are stored in an indexed heap so that the
+ * event of a bound molecule can be cancelled and rescheduled in O(log n)
+ */
+public class TFRandomWalkEventQueueFRindexed extends TFRandomWalkEventQueueFR {
+
+    private static final long serialVersionUID = 5710448218496305172L;
+    protected IndexedEventHeap<ProteinEvent> events;
+
+    /**
+     * class constructor. Initialises the event list
+     */
+    public TFRandomWalkEventQueueFRindexed(Cell n) {
+        super(n);
+        events = new IndexedEventHeap<ProteinEvent>(n.dbp.length);
+    }
+
+    /**
+     * adds a new event to the list
+     *
+     * @param pe the new protein event
+     */
+    public void add(Event pe) {
+        events.add((ProteinEvent) pe);
+    }
+
+    /**
+     * peeks the soonest event
+     */
+    public ProteinEvent peek() {
+        return events.peek();
+    }
+
+    /**
+     * polls the soonest event
+     */
+    public ProteinEvent pop() {
+        return events.poll();
+    }
+
+    /**
+     * returns true if the list of events is empty or false otherwise
+     */
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * returns the number of events in the list
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * returns true if an event of the molecule is in the list
+     */
+    public boolean containsEventOf(int moleculeID) {
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).proteinID == moleculeID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * updates the event of a bound molecule. The event is found through the reference kept by the molecule, so no
+     * scan of the list is needed
+     */
+    public void updateNextEvent(Cell n, int moleculeID, double time) {
+        boolean removed = events.remove(n.dbp[moleculeID].pe);
+        if (removed) {
+            ProteinEvent pe = this.createNextEvent(n, moleculeID, time, n.dbp[moleculeID].pe);
+            this.scheduleNextEvent(n, moleculeID, pe);
+        }
+    }
+
+}
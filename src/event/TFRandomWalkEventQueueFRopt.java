@@ -3,25 +3,22 @@ package event;
 import java.util.ArrayList;
 import java.util.PriorityQueue;
 
-import utils.Constants;
-import utils.Gillespie;
-import utils.Utils;
-
 import environment.Cell;
 
 /**
- * random walk event class using the clustered First Reaction method
+ * random walk event class using the clustered First Reaction method. The molecules are split in groups of consecutive
+ * IDs, each group keeps its own priority queue and the soonest event of every group is stored in a second level list.
  * @author n.r.zabet@gen.cam.ac.uk
  *
  */
-public class TFRandomWalkEventQueueFRopt extends TFEventQueue {
+public class TFRandomWalkEventQueueFRopt extends TFRandomWalkEventQueueFR {
 
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = -8520471978546008987L;
-	private ArrayList<PriorityQueue<ProteinEvent>> randomWalkEvents;
-	private PriorityQueue<ProteinEvent> randomWalkEventsMin;
+	private ArrayList<PriorityQueue<ProteinEvent>> randomWalkEventsGroups;
+	private IndexedEventHeap<ProteinEvent> randomWalkEventsMin;
 
 	private int size;
 
@@ -29,15 +26,16 @@ public class TFRandomWalkEventQueueFRopt extends TFEventQueue {
 	private int groupSize;
 	private int startID;
 	private int TFcount;
-	
-	
+
+
 
 	/**
 	 * class constructor. Initialkises the event list
 	 */
 	public TFRandomWalkEventQueueFRopt(Cell n){
-		randomWalkEvents = new ArrayList<PriorityQueue<ProteinEvent>>();
-	
+		super(n);
+		randomWalkEventsGroups = new ArrayList<PriorityQueue<ProteinEvent>>();
+
 		this.startID = 0;
 		this.TFcount = n.dbp.length;
 
@@ -47,60 +45,77 @@ public class TFRandomWalkEventQueueFRopt extends TFEventQueue {
 		} else if(groupSize > TFcount){
 			this.groupSize = TFcount;
 		}
-		
-		this.groupsNo  = (int)  (int) Math.ceil((double)TFcount/groupSize);
-			
+		if(this.groupSize < 1){
+			this.groupSize = 1;
+		}
+
+		this.groupsNo  = (int) Math.ceil((double)TFcount/groupSize);
+
 		for(int i=0; i< groupsNo; i++){
-			randomWalkEvents.add(new PriorityQueue<ProteinEvent>());
+			randomWalkEventsGroups.add(new PriorityQueue<ProteinEvent>());
 		}
-		randomWalkEventsMin = new PriorityQueue<ProteinEvent>();
+		randomWalkEventsMin = new IndexedEventHeap<ProteinEvent>(groupsNo);
 
 		size = 0;
 	}
-	
-	
+
+
 	/**
 	 * adds a new event to the list
 	 * @param e the new event
 	 */
 	public void add(Event e){
-		ProteinEvent oldEvent = null;
 		ProteinEvent newEvent = (ProteinEvent) e;
-		int groupID= this.getGroupID(newEvent.proteinID);
-		if(!randomWalkEvents.get(groupID).isEmpty()){
-			oldEvent = randomWalkEvents.get(groupID).peek();
-		}
-		
-		// add the event to the specific codon event list
-		randomWalkEvents.get(groupID).add(newEvent);
+		PriorityQueue<ProteinEvent> group = randomWalkEventsGroups.get(this.getGroupID(newEvent.proteinID));
+		ProteinEvent oldEvent = group.peek();
+
+		// add the event to the specific group event list
+		group.add(newEvent);
 
 		size++;
-		
-		// update the min list per codon if necessary
-		updateElongationEventQueueBindingCodonMinList(oldEvent,randomWalkEvents.get(groupID).peek());
-				
+
+		// update the min list if the soonest event of the group changed
+		if(group.peek() != oldEvent){
+			updateMinList(oldEvent, group.peek());
+		}
 	}
-	
+
 	/**
-	 * updates the list of soonest event per codon when a new event is added to the list
-	 * @param oldEvent
-	 * @param newEvent
-	 * @return
+	 * replaces the soonest event of a group in the min list
+	 * @param oldEvent the previous soonest event of the group (null if the group was empty)
+	 * @param newEvent the new soonest event of the group (null if the group is empty)
 	 */
-	private boolean updateElongationEventQueueBindingCodonMinList(ProteinEvent oldEvent, ProteinEvent newEvent){
-		boolean result=false;
+	private void updateMinList(ProteinEvent oldEvent, ProteinEvent newEvent){
 		if(oldEvent!=null){
 			randomWalkEventsMin.remove(oldEvent);
 		}
 		if(newEvent!=null){
 			randomWalkEventsMin.add(newEvent);
-			result = true;
 		}
-		return result;
 	}
-	
-	
-	
+
+	/**
+	 * removes an event from the list
+	 * @param pe the event
+	 * @return true if the event was in the list and false otherwise
+	 */
+	private boolean remove(ProteinEvent pe){
+		if(pe == null || pe.proteinID < startID || pe.proteinID >= startID + TFcount){
+			return false;
+		}
+		PriorityQueue<ProteinEvent> group = randomWalkEventsGroups.get(this.getGroupID(pe.proteinID));
+		boolean wasSoonest = group.peek() == pe;
+		boolean removed = group.remove(pe);
+		if(removed){
+			size--;
+			if(wasSoonest){
+				updateMinList(pe, group.peek());
+			}
+		}
+		return removed;
+	}
+
+
 	/**
 	 * polls the soonest event
 	 * @return
@@ -109,24 +124,24 @@ public class TFRandomWalkEventQueueFRopt extends TFEventQueue {
 		ProteinEvent result=null;
 		if(!randomWalkEventsMin.isEmpty()){
 			result = randomWalkEventsMin.poll();
-			int groupID= this.getGroupID(result.proteinID);
-			randomWalkEvents.get(groupID).poll();
-			if(!randomWalkEvents.get(groupID).isEmpty()){
-				randomWalkEventsMin.add(randomWalkEvents.get(groupID).peek());
+			PriorityQueue<ProteinEvent> group = randomWalkEventsGroups.get(this.getGroupID(result.proteinID));
+			group.poll();
+			if(!group.isEmpty()){
+				randomWalkEventsMin.add(group.peek());
 			}
 			size--;
 		}
 		return result;
-	} 
-	
+	}
+
 	/**
 	 * peeks the soonest event
 	 * @return
 	 */
 	public ProteinEvent peek(){
 		return randomWalkEventsMin.peek();
-	} 
-	
+	}
+
 
 	/**
 	 * returns true if the list of events is empty or false otherwise
@@ -134,100 +149,45 @@ public class TFRandomWalkEventQueueFRopt extends TFEventQueue {
 	public boolean isEmpty(){
 		return size==0;
 	}
-	
+
 	/**
 	 * returns the number of events in the list
 	 */
 	public int size(){
 		return size;
 	}
-	
+
 	/**
-	 * gets the groupt to which a molecule is assigned
-	 * @param moleculeID
-	 * @return
+	 * returns true if an event of the molecule is in the list
 	 */
-	private int getGroupID(int moleculeID){
-		return (moleculeID-startID)/groupSize;
-	}
-	
-	public ProteinEvent createNextEvent(Cell n, int moleculeID, double time) {
-		if(n.dbp[moleculeID].getPosition()!=Constants.NONE){
-
-			int position = n.dbp[moleculeID].getPosition();
-			int newPosition=position;
-			int nextAction = Constants.NONE;
-			//double avgMoveRate;
-			int direction = n.dbp[moleculeID].getDirection();
-
-			int speciesID = n.dbp[moleculeID].speciesID;
-			boolean isHoppingEvent=false;
-
-			//compute the time the TF stays stucked
-			double propensity = n.dbp[moleculeID].getMoveRate();
-			double nextTime = Gillespie.computeNextReactionTime(propensity, n.randomGenerator);
-
-			double randomNumber=n.randomGenerator.nextDouble()*n.TFspecies[speciesID].slideRightNo;
-			if(randomNumber < n.TFspecies[speciesID].jumpNo){
-				nextAction = Constants.EVENT_TF_RANDOM_WALK_JUMP;
-				newPosition = Constants.NONE;
-			} else if(randomNumber < n.TFspecies[speciesID].hopNo){
-				isHoppingEvent = true;
-				nextAction = Constants.EVENT_TF_RANDOM_WALK_HOP;
-				newPosition  = Utils.generateNextNormalDistributedInteger(n.randomGenerator, position, n.TFspecies[speciesID].hopSTDdisplacement);
-
-//				if(newPosition < 0){
-//					newPosition = 0;
-//				} else if( newPosition >= n.dna.strand.length-n.dbp[moleculeID].size){
-//					newPosition =  n.dna.strand.length-n.dbp[moleculeID].size;
-//				} else if (Math.abs(newPosition-position) > n.TFSpecies[speciesID].uncorrelatedDisplacementSize){
-//					//the hop size is to big and the hop becomes a jump
-//					nextAction = Constants.EVENT_TF_RANDOM_WALK_JUMP;
-//					newPosition = Constants.NONE;
-//				} else if(newPosition > position && n.dbp[moleculeID].size > (newPosition-position)){
-//					// the size it too small and the molecule slides to  right
-//					nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_RIGHT;
-//				} else if(newPosition < position && n.dbp[moleculeID].size > (position - newPosition)){
-//					// the size it too small and the molecule slides to  left
-//					nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_LEFT;
-//				}
-			} else if(randomNumber < n.dna.TFSlideLeftNo[speciesID][position][direction]){
-				nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_LEFT;
-				newPosition= position-n.TFspecies[speciesID].stepLeftSize;
-			} else if(randomNumber <  n.dna.TFSlideRightNo[speciesID][position][direction]){
-				nextAction = Constants.EVENT_TF_RANDOM_WALK_SLIDE_RIGHT;
-				newPosition= position+n.TFspecies[speciesID].stepRightSize;
+	public boolean containsEventOf(int moleculeID){
+		for(ProteinEvent pe: randomWalkEventsGroups.get(this.getGroupID(moleculeID))){
+			if(pe.proteinID == moleculeID){
+				return true;
 			}
-
-			return new ProteinEvent(time+nextTime, moleculeID, newPosition, true, nextAction, isHoppingEvent, propensity);
 		}
-
-		return new ProteinEvent();
+		return false;
 	}
 
-	
 	/**
-	 * schedules the next non-cognate TF random walk event
+	 * gets the groupt to which a molecule is assigned
+	 * @param moleculeID
+	 * @return
 	 */
-	public void scheduleNextEvent(Cell n, int moleculeID, Event e){
-		ProteinEvent pe = (ProteinEvent) e;
-		if (!pe.isEmpty()) {
-			n.dbp[moleculeID].pe = pe;
-			n.dbp[moleculeID].re = null;
-			this.add(pe);
-		}
+	private int getGroupID(int moleculeID){
+		return (moleculeID-startID)/groupSize;
 	}
-	
+
 	/**
 	 * updates the event of a bound molecule.
-	 * Because the DM implementation always checks for the latest move rate and updates it in the list and then redraws a new event we can just schedule the event list
+	 * Only the group of the molecule and the min list are touched, so the update costs O(groupSize + log(groupsNo))
 	 */
 	public void updateNextEvent(Cell n, int moleculeID, double time){
-		boolean removed = this.randomWalkEvents.remove(n.dbp[moleculeID].pe);
+		boolean removed = this.remove(n.dbp[moleculeID].pe);
 		if(removed){
-			ProteinEvent pe = this.createNextEvent(n, moleculeID, time);
+			ProteinEvent pe = this.createNextEvent(n, moleculeID, time, n.dbp[moleculeID].pe);
 			this.scheduleNextEvent(n, moleculeID, pe);
 		}
 	}
-	
+
 }
@@ -0,0 +1,54 @@
+package event;
+
+import environment.Cell;
+import utils.Constants;
+
+/**
+ * random walk event class using the Next Reaction method (Gibson and Bruck). The events keep their absolute putative
+ * times in an indexed heap and when the move rate of a bound molecule changes the remaining waiting time is rescaled
+ * by oldRate/newRate instead of being drawn again.
+ *
+ * The molecules whose rates depend on an event are the ones already reached by TF.setCooperativityArea and
+ * TF.resetCooperativityArea (the regions of the TFcoop entries of the species) and the direct cooperativity partners
+ * (stickToLeft and stickToRight); only these call updateNextEvent. Repression windows change only the DNA
+ * availability, which affects the binding events and not the events of the bound molecules.
+ */
+public class TFRandomWalkEventQueueNRM extends TFRandomWalkEventQueueFRindexed {
+
+    private static final long serialVersionUID = -4533281370622530180L;
+
+    /**
+     * class constructor. Initialises the event list
+     */
+    public TFRandomWalkEventQueueNRM(Cell n) {
+        super(n);
+    }
+
+    /**
+     * updates the event of a bound molecule after its move rate changed. The remaining waiting time is rescaled, which
+     * is exact only while the proportions of the random walk channels stay the same. For a biased random walk the
+     * left/right slide split depends on the move rates of the neighbouring positions, so the next action is drawn again
+     * with the new rates. If the molecule can also repress or derepress, the pending event was chosen between two
+     * channels using the old rates and it is redrawn as in the First Reaction method.
+     */
+    public void updateNextEvent(Cell n, int moleculeID, double time) {
+        ProteinEvent pe = n.dbp[moleculeID].pe;
+        if (!events.contains(pe)) {
+            return;
+        }
+
+        double propensity = n.dbp[moleculeID].getMoveRate();
+        if (n.dbp[moleculeID].getRepressionEventRate() < Constants.DOUBLE_ZERO && pe.propensity > 0
+                && propensity > Constants.DOUBLE_ZERO && pe.time >= time) {
+            pe.time = time + (pe.time - time) * (pe.propensity / propensity);
+            pe.propensity = propensity;
+            if (n.TFspecies[n.dbp[moleculeID].speciesID].isBiasedRandomWalk) {
+                TFRandomWalkEventQueueFR.setNextAction(n, moleculeID, pe);
+            }
+            events.update(pe);
+        } else {
+            super.updateNextEvent(n, moleculeID, time);
+        }
+    }
+
+}
@@ -41,25 +41,58 @@ public class TFRepressionEventQueueFR extends TFEventQueue {
         return events.size();
     }
 
+    /**
+     * returns true if an event of the molecule is in the list
+     */
+    public boolean containsEventOf(int moleculeID) {
+        for (RepressionEvent re : events) {
+            if (re.proteinID == moleculeID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public RepressionEvent createNextEvent(Cell n, int moleculeID, double time) {
+        return this.createNextEvent(n, moleculeID, time, new RepressionEvent());
+    }
+
+    /**
+     * creates the next repression event of a molecule in the supplied event object, which has to be outside of any
+     * event list. If the molecule cannot repress the DNA the event becomes empty.
+     */
+    public RepressionEvent createNextEvent(Cell n, int moleculeID, double time, RepressionEvent re) {
         if (n.dbp[moleculeID].getRepressionEventRate() < Constants.DOUBLE_ZERO) {
-            return new RepressionEvent();
+            re.clear();
+            return re;
         }
+        double propensity = n.dbp[moleculeID].getRepressionEventRate();
+        double nextTime = Gillespie.computeNextReactionTime(propensity, n.randomGenerator);
+        setNextAction(n, moleculeID, time + nextTime, propensity, re);
+        return re;
+    }
+
+    /**
+     * fills a repression event of a bound molecule: the affected DNA region and whether the molecule represses or
+     * derepresses it
+     */
+    public static void setNextAction(Cell n, int moleculeID, double time, double propensity, RepressionEvent re) {
         int speciesID = n.dbp[moleculeID].speciesID;
         int position = n.dbp[moleculeID].getPosition();
         assert position != Constants.NONE;
         int boundaryLeft  = n.dna.updateLeftBoundary(position - n.TFspecies[speciesID].repressionLeftSize);
         int boundaryRight = n.dna.updateRightBoundary(position + n.TFspecies[speciesID].sizeTotal - 1 + n.TFspecies[speciesID].repressionRightSize);
-        double propensity = n.dbp[moleculeID].getRepressionEventRate();
-        double nextTime = Gillespie.computeNextReactionTime(propensity, n.randomGenerator);
         int nextAction;
         if (n.dbp[moleculeID].isRepressingDNA()) {
             nextAction = Constants.EVENT_TF_DEREPRESSION;
+            // the window added by the repression, which the molecule may have left by sliding
+            boundaryLeft = n.dbp[moleculeID].repressionBoundaryLeft;
+            boundaryRight = n.dbp[moleculeID].repressionBoundaryRight;
         }
         else {
             nextAction = Constants.EVENT_TF_REPRESSION;
         }
-        return new RepressionEvent(time + nextTime, nextAction, moleculeID, boundaryLeft, boundaryRight, propensity, true);
+        re.set(time, nextAction, moleculeID, boundaryLeft, boundaryRight, propensity, true);
     }
 
     public void scheduleNextEvent(Cell n, int moleculeID, Event e) {
@@ -75,7 +108,7 @@ public class TFRepressionEventQueueFR extends TFEventQueue {
     public void updateNextEvent(Cell n, int moleculeID, double time) {
         boolean removed = this.events.remove(n.dbp[moleculeID].re);
         if(removed){
-            RepressionEvent re = this.createNextEvent(n, moleculeID, time);
+            RepressionEvent re = this.createNextEvent(n, moleculeID, time, n.dbp[moleculeID].re);
             this.scheduleNextEvent(n, moleculeID, re);
         }
     }
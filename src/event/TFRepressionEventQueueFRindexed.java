@@ -0,0 +1,65 @@
+package event;
+
+import environment.Cell;
+
+/**
+ * repression event class using First Reaction method, where the events are stored in an indexed heap so that the
+ * event of a bound molecule can be cancelled and rescheduled in O(log n)
+ */
+public class TFRepressionEventQueueFRindexed extends TFRepressionEventQueueFR {
+
+    private static final long serialVersionUID = -1877205374069625523L;
+    private IndexedEventHeap<RepressionEvent> events;
+
+    public TFRepressionEventQueueFRindexed(Cell n) {
+        super();
+        events = new IndexedEventHeap<RepressionEvent>(n.dbp.length);
+    }
+
+    public void add(Event e) {
+        events.add((RepressionEvent) e);
+    }
+
+    public RepressionEvent peek() {
+        return events.peek();
+    }
+
+    public RepressionEvent pop() {
+        return events.poll();
+    }
+
+    /**
+     * returns true if the list of events is empty or false otherwise
+     */
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * returns the number of events in the list
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * returns true if an event of the molecule is in the list
+     */
+    public boolean containsEventOf(int moleculeID) {
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).proteinID == moleculeID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void updateNextEvent(Cell n, int moleculeID, double time) {
+        boolean removed = events.remove(n.dbp[moleculeID].re);
+        if (removed) {
+            RepressionEvent re = this.createNextEvent(n, moleculeID, time, n.dbp[moleculeID].re);
+            this.scheduleNextEvent(n, moleculeID, re);
+        }
+    }
+
+}
@@ -4,7 +4,9 @@ import environment.Cell;
 import utils.*;
 
 import java.io.*;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Random;
 
@@ -19,7 +21,9 @@ public class DNA implements Serializable {
      *
      */
     private static final long serialVersionUID = 4312661038245046220L;
-    public byte[] strand;
+    public PackedSequence strand;
+    public int loadedStart; // the position of the strand in the sequence record, when only a part of it was read
+    public int recordLength; // the length of the sequence record
     public int[] occupied;
     public byte[] closed;
 
@@ -30,22 +34,30 @@ public class DNA implements Serializable {
     public int[] sectorID;
 
     public int[] TFsize;
-    public double[][][] TFavgMoveRate; //TFSpecies; position; direction
-    public boolean[][] effectiveTFavailability; // speciesID, position
+    public double[][] TFavgMoveRate; //TFSpecies; position * TFdirections + direction
+    public LongBitSet[] effectiveTFavailability; // speciesID, position
+    private PositionSet closedPositions; // the positions which are closed or repressed
+    private IntervalCoverage repressedRegions; // the number of repression windows which cover each position
     public int[][] effectiveTFsectorsAvailabilitySum; //species id, sectors
+    public FenwickTree[] effectiveTFsectorsAvailabilityIndex; // prefix sums of the sector sums for each species
     public int[] effectiveTFavailabilitySum;
     public int[] effectiveTFavailabilityMaxSum;
-    public double[][][] effectiveTFOccupancy; //TFSpecies; position; direction
-    public int[][][] finalTFOccupancy; //TFSpecies; position; direction
-    public double[][][] firstReached; //TFSpecies; position; direction
+    public double[][] effectiveTFOccupancy; //TFSpecies; position * TFdirections + direction
+    public int[][] finalTFOccupancy; //TFSpecies; position * TFdirections + direction
+    public double[][] firstReached; //TFSpecies; position * TFdirections + direction
 
-    public double[][][] TFSlideLeftNo; //TFSpecies; position; direction
-    public double[][][] TFSlideRightNo; //TFSpecies; position; direction
+    // the slide bounds are stored only for the biased species (null for the others, and when computed on demand)
+    public double[][] TFSlideLeftNo; //TFSpecies; position * TFdirections + direction
+    public double[][] TFSlideRightNo; //TFSpecies; position * TFdirections + direction
+    private double[] slideLeftNo; // the slide bounds of each species when the random walk is unbiased
+    private double[] slideRightNo;
+    private double[] slideIntervalLength; // the width of the slide interval of each species
+    private boolean[] isBiasedRandomWalk;
 
 
     public double[] bpFreq;
 
-    public int[][][] isTargetSite;
+    public int[][] isTargetSite; //TFSpecies; position * TFdirections + direction
     public boolean areTargetSites;
     public int TFdirections;
     public ArrayList<TargetSite> ts;
@@ -69,7 +81,7 @@ public class DNA implements Serializable {
     public double repressedActScore; // FG: sum of the repressed repressor sites scores
 
     public DNA() {
-        strand = new byte[0];
+        strand = new PackedSequence(new byte[0]);
         region = new DNAregion("", 0, 0);
         occupied = new int[0];
         closed = new byte[0];
@@ -82,8 +94,8 @@ public class DNA implements Serializable {
     public DNA(Random generator, int length, double proportionOfA, double proportionOfT, double proportionOfC,
                double proportionOfG, String boundaryCondition)
     {
-        strand = CellUtils.generateRandomDNASequence(generator, length, proportionOfA, proportionOfT, proportionOfC,
-                proportionOfG);
+        strand = new PackedSequence(CellUtils.generateRandomDNASequence(generator, length, proportionOfA,
+                proportionOfT, proportionOfC, proportionOfG));
         computeBPfreq();
         parseDescription("randomly generated", length, boundaryCondition);
 
@@ -108,13 +120,11 @@ public class DNA implements Serializable {
      * @param dna the DNA sequence used for initialization
      */
     public DNA(DNA dna) {
-        parseDescription(dna.description, dna.strand.length, "");
-        int start = (int) (this.subsequence.start - this.region.start);
-        int end = (int) Math.min(Math.min(this.subsequence.end - this.region.start,
-                this.region.end - this.region.start), dna.strand.length + start);
+        parseDescription(dna.description, dna.recordLength, "");
+        int start = getSubsequenceStart();
+        int end = getSubsequenceEnd(dna.recordLength);
 
-        this.strand = new byte[end - start];
-        if (end - start >= 0) System.arraycopy(dna.strand, start, this.strand, 0, end - start);
+        this.strand = dna.strand.subSequence(start - dna.loadedStart, Math.max(start, end) - dna.loadedStart);
         computeBPfreq();
 
         isRandom = false;
@@ -248,12 +258,13 @@ public class DNA implements Serializable {
     private void setOccupancyAndClosenessVectorsFree() {
         this.occupied = new int[strand.length];
         this.closed = new byte[strand.length];
+        this.repressedRegions = new IntervalCoverage();
         freeDNA(Constants.FIRST, strand.length);
         openDNA(Constants.FIRST, strand.length);
     }
 
     /**
-     * computes bp frequency
+     * computes bp frequency (among the A, C, G and T; the N are left out)
      */
     private void computeBPfreq() {
         long[] countBP = new long[CellUtils.bps.numberOfBP]; // filled with 0 by default
@@ -264,16 +275,19 @@ public class DNA implements Serializable {
         }
 
         if (strand.length > 0) {
-            //count
+            //count (the N nucleotides are not counted)
+            byte bp;
+            long known = 0;
             for (int i = 0; i < strand.length; i++) {
-                if (strand[i] > 3) {
-                    System.out.println("Error: unknown bp " + strand[i] + " " + i);
+                bp = strand.get(i);
+                if (bp >= 0 && bp < countBP.length) {
+                    countBP[bp]++;
+                    known++;
                 }
-                countBP[strand[i]]++;
             }
             //compute frequency
-            for (int i = 0; i < countBP.length; i++) {
-                bpFreq[i] = (double) countBP[i] / strand.length;
+            for (int i = 0; i < countBP.length && known > 0; i++) {
+                bpFreq[i] = (double) countBP[i] / known;
             }
         }
     }
@@ -282,35 +296,197 @@ public class DNA implements Serializable {
     /**
      * sets the sequence provided as a parameter as the current one
      */
-    public void loadSequence(ArrayList<Byte> seq) {
-        this.strand = new byte[seq.size()];
-        for (int i = 0; i < seq.size(); i++) {
-            this.strand[i] = seq.get(i);
+    public void loadSequence(PackedSequence seq) {
+        loadSequence(seq, 0, seq.length);
+    }
+
+    /**
+     * sets a part of a sequence record as the current sequence
+     *
+     * @param seq          the part of the record which was read
+     * @param start        the position of the part in the record
+     * @param recordLength the length of the record
+     */
+    public void loadSequence(PackedSequence seq, int start, int recordLength) {
+        this.strand = seq;
+        this.loadedStart = start;
+        this.recordLength = recordLength;
+    }
+
+    /**
+     * returns the position of the subsequence in the sequence record, after the description was parsed
+     */
+    public int getSubsequenceStart() {
+        return (int) (this.subsequence.start - this.region.start);
+    }
+
+    /**
+     * returns the end of the subsequence in the sequence record, after the description was parsed
+     *
+     * @param recordLength the length of the sequence record
+     */
+    public int getSubsequenceEnd(int recordLength) {
+        return (int) Math.min(Math.min(this.subsequence.end - this.region.start,
+                this.region.end - this.region.start), recordLength + getSubsequenceStart());
+    }
+
+
+    /**
+     * returns the index of a position and a direction in the per position arrays of a species
+     */
+    public int index(int position, int direction) {
+        return position * TFdirections + direction;
+    }
+
+    /**
+     * returns the average move rate of a TF species at a position and direction
+     */
+    public double getTFavgMoveRate(int speciesID, int position, int direction) {
+        return TFavgMoveRate[speciesID][position * TFdirections + direction];
+    }
+
+    /**
+     * sets the average move rate of a TF species at a position and direction. The stored slide bounds of the two
+     * neighbour positions, which depend on it, are recomputed, so they follow the changes of the DNA based
+     * cooperativity as the bounds computed on demand do
+     */
+    public void setTFavgMoveRate(int speciesID, int position, int direction, double moveRate) {
+        TFavgMoveRate[speciesID][position * TFdirections + direction] = moveRate;
+        if (TFSlideLeftNo[speciesID] != null) {
+            for (int j = position - 1; j <= position + 1; j += 2) {
+                if (j >= 0 && j < strand.length) {
+                    TFSlideLeftNo[speciesID][index(j, direction)] = computeTFSlideLeftNo(speciesID, j, direction);
+                    TFSlideRightNo[speciesID][index(j, direction)] = computeTFSlideRightNo(speciesID, j, direction);
+                }
+            }
         }
     }
 
+    /**
+     * returns the upper bound of the slide left events in the random walk draw of a TF species
+     */
+    public double getTFSlideLeftNo(int speciesID, int position, int direction) {
+        if (TFSlideLeftNo[speciesID] != null) {
+            return TFSlideLeftNo[speciesID][position * TFdirections + direction];
+        }
+        return computeTFSlideLeftNo(speciesID, position, direction);
+    }
 
     /**
-     * FG
+     * returns the upper bound of the slide right events in the random walk draw of a TF species
      */
-    private void recomputeTFAffinityLandscapeForClosedRegions(int startPos, int endPos, int speciesID) {
-        boolean stop = false;
-        int start = startPos, end;
-        while (!stop) {
-            while (start < endPos && closed[start] == Constants.BP_IS_OPEN) {
-                start++;
+    public double getTFSlideRightNo(int speciesID, int position, int direction) {
+        if (TFSlideRightNo[speciesID] != null) {
+            return TFSlideRightNo[speciesID][position * TFdirections + direction];
+        }
+        return computeTFSlideRightNo(speciesID, position, direction);
+    }
+
+    /**
+     * computes the slide left bound of a TF species; if the random walk is biased, the slide interval is split by
+     * the ratio of the affinities of the left and the right neighbour positions
+     */
+    private double computeTFSlideLeftNo(int speciesID, int position, int direction) {
+        if (!isBiasedRandomWalk[speciesID] || position <= 0 || position >= strand.length - 1) {
+            return slideLeftNo[speciesID];
+        }
+        double affinityRightLeftRatio = getTFavgMoveRate(speciesID, position - 1, direction)
+                / getTFavgMoveRate(speciesID, position + 1, direction);
+        return slideIntervalLength[speciesID] / (1 + affinityRightLeftRatio);
+    }
+
+    /**
+     * computes the slide right bound of a TF species (see computeTFSlideLeftNo)
+     */
+    private double computeTFSlideRightNo(int speciesID, int position, int direction) {
+        if (!isBiasedRandomWalk[speciesID] || position <= 0 || position >= strand.length - 1) {
+            return slideRightNo[speciesID];
+        }
+        double affinityRightLeftRatio = getTFavgMoveRate(speciesID, position - 1, direction)
+                / getTFavgMoveRate(speciesID, position + 1, direction);
+        return (affinityRightLeftRatio * slideIntervalLength[speciesID]) / (1 + affinityRightLeftRatio);
+    }
+
+    /**
+     * returns the ID of the target site of a TF species at a position and direction, or Constants.NONE
+     */
+    public int getTargetSite(int speciesID, int position, int direction) {
+        return isTargetSite[speciesID][position * TFdirections + direction];
+    }
+
+    /**
+     * returns the time a TF species was bound at a position and direction
+     */
+    public double getTFOccupancy(int speciesID, int position, int direction) {
+        return effectiveTFOccupancy[speciesID][position * TFdirections + direction];
+    }
+
+    /**
+     * adds bound time to the occupancy of a TF species at a position and direction
+     */
+    public void addTFOccupancy(int speciesID, int position, int direction, double timeBound) {
+        effectiveTFOccupancy[speciesID][position * TFdirections + direction] += timeBound;
+    }
+
+    /**
+     * clears the occupancy, the final occupancy, the collisions and the repression data
+     */
+    public void clearStatistics() {
+        for (double[] speciesOccupancy : effectiveTFOccupancy) {
+            Arrays.fill(speciesOccupancy, 0);
+        }
+        if (finalTFOccupancy != null) {
+            for (int[] speciesOccupancy : finalTFOccupancy) {
+                Arrays.fill(speciesOccupancy, 0);
             }
-            if (start < endPos) {
-                end = start + 1;
-                while (end < endPos && closed[end] != Constants.BP_IS_OPEN) {
-                    end++;
+        }
+        Arrays.fill(collisionsCount, 0);
+        repressionData.clear();
+    }
+
+    /**
+     * adds the occupancy, the final occupancy, the collisions and the repression data of a copy of this DNA
+     */
+    public void addStatistics(DNA other) {
+        for (int i = 0; i < effectiveTFOccupancy.length; i++) {
+            for (int j = 0; j < effectiveTFOccupancy[i].length; j++) {
+                effectiveTFOccupancy[i][j] += other.effectiveTFOccupancy[i][j];
+            }
+        }
+        if (finalTFOccupancy != null) {
+            for (int i = 0; i < finalTFOccupancy.length; i++) {
+                for (int j = 0; j < finalTFOccupancy[i].length; j++) {
+                    finalTFOccupancy[i][j] += other.finalTFOccupancy[i][j];
                 }
-                closeRegionInAffinityLandscape(start, end, speciesID);
-                start = end;
-            } else {
-                stop = true;
             }
         }
+        for (int i = 0; i < collisionsCount.length; i++) {
+            collisionsCount[i] += other.collisionsCount[i];
+        }
+        repressionData.addAll(other.repressionData);
+    }
+
+    /**
+     * marks all the positions as not reached
+     */
+    public void resetFirstReached() {
+        for (double[] speciesFirstReached : firstReached) {
+            Arrays.fill(speciesFirstReached, Constants.NONE);
+        }
+    }
+
+    /**
+     * FG
+     * makes unavailable the positions whose footprint overlaps a closed or repressed run which starts in
+     * [startPos, endPos). The runs are found from the closed positions set, so open bps are not scanned
+     */
+    private void recomputeTFAffinityLandscapeForClosedRegions(int startPos, int endPos, int speciesID) {
+        int start = this.closedPositions.next(startPos);
+        while (start != Constants.NONE && start < endPos) {
+            int end = this.closedPositions.bits().nextClear(start + 1);
+            closeRegionInAffinityLandscape(start, end, speciesID);
+            start = this.closedPositions.next(end);
+        }
     }
 
     /**
@@ -336,6 +512,78 @@ public class DNA implements Serializable {
         }
     }
 
+    /**
+     * returns the keys of the affinity landscape cache of a TF species for the 5'->3' and the 3'->5' strand. The key
+     * of a landscape which is drawn at random (no motif) is null, as is every key if there is no cache
+     */
+    private String[] getAffinityCacheKeys(AffinityLandscapeCache cache, TFSpecies species, byte[] strandDigest) {
+        String[] keys = new String[2];
+        if (cache == null) {
+            return keys;
+        }
+        try {
+            byte[] fileDigest = null;
+            if (species.landscapeFile != null && !species.landscapeFile.isEmpty()) {
+                fileDigest = new AffinityLandscapeCache.Key("file").addFile(species.landscapeFile).digest();
+            }
+            for (int dir = 0; dir < keys.length; dir++) {
+                AffinityLandscapeCache.Key key;
+                if (fileDigest != null) {
+                    key = new AffinityLandscapeCache.Key("landscape").add(fileDigest).add(species.landscapePosCol)
+                            .add(species.landscapeAffinityColLR).add(species.landscapeAffinityColRL)
+                            .add(species.landscapeEscapeLines).add(this.subsequence.start).add(strand.length);
+                } else if (dir == 0 && species.seqsFile != null && !species.seqsFile.isEmpty()) {
+                    key = new AffinityLandscapeCache.Key("seqs").addFile(species.seqsFile)
+                            .add(species.seqsEscapeLines).add(species.seqsDefaultValue).add(species.sizeRight);
+                } else if (species.pfm != null && species.pfm.motifSize > 0) {
+                    if (!species.pfm.isCorrect) {
+                        continue;
+                    }
+                    key = new AffinityLandscapeCache.Key("pfm").add(species.pfm.motifSize).add(species.es);
+                    for (int nucleotidePosition : species.pfm.nucleotidePosition) {
+                        key.add(nucleotidePosition);
+                    }
+                    for (ArrayList<Double> scores : species.pfm.normPFM) {
+                        for (double score : scores) {
+                            key.add(score);
+                        }
+                    }
+                } else if (species.dbd != null && species.dbd.length > 0) {
+                    key = new AffinityLandscapeCache.Key("dbd").add(species.dbd).add(species.es);
+                } else {
+                    continue;
+                }
+                keys[dir] = key.add(strandDigest).add(species.sizeLeft).add(species.sizeTotal).add(dir).toString();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return keys;
+    }
+
+    /**
+     * returns a landscape from the cache, or null if there is no cache or the landscape is not cached
+     */
+    private DoubleBuffer loadCachedAffinities(AffinityLandscapeCache cache, String key) {
+        if (cache == null || key == null) {
+            return null;
+        }
+        return cache.load(key, strand.length);
+    }
+
+    /**
+     * stores a landscape in the cache if there is one and the landscape can be cached
+     */
+    private void storeCachedAffinities(AffinityLandscapeCache cache, String key, double[] affinities) {
+        if (cache != null && key != null) {
+            try {
+                cache.store(key, affinities);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * compute the affinity landscape for a list of TF species
      */
@@ -344,90 +592,100 @@ public class DNA implements Serializable {
     {
         if (TFspecies != null && TFspecies.length > 0) {
             TFsize = new int[TFspecies.length];
-            double[][] TFaffinitiesLR = new double[TFspecies.length][strand.length];
-            double[][] TFaffinitiesRL = new double[TFspecies.length][strand.length];
-            effectiveTFavailability = new boolean[TFspecies.length][strand.length];
+            // the computed landscapes; a cached landscape is read from its mapped file instead
+            double[][] TFaffinitiesLR = new double[TFspecies.length][];
+            double[][] TFaffinitiesRL = new double[TFspecies.length][];
+            effectiveTFavailability = new LongBitSet[TFspecies.length];
             effectiveTFavailabilitySum = new int[TFspecies.length];
             effectiveTFavailabilityMaxSum = new int[TFspecies.length];
-            TFavgMoveRate = new double[TFspecies.length][strand.length][TFdirections];
-            effectiveTFOccupancy = new double[TFspecies.length][strand.length][TFdirections];
-            this.TFSlideLeftNo = new double[TFspecies.length][strand.length][TFdirections];
-            this.TFSlideRightNo = new double[TFspecies.length][strand.length][TFdirections];
+            // the per position arrays of a species are flat: one element per position and direction
+            this.TFdirections = TFdirections;
+            TFavgMoveRate = new double[TFspecies.length][strand.length * TFdirections];
+            effectiveTFOccupancy = new double[TFspecies.length][strand.length * TFdirections];
+            this.TFSlideLeftNo = new double[TFspecies.length][];
+            this.TFSlideRightNo = new double[TFspecies.length][];
+            this.slideLeftNo = new double[TFspecies.length];
+            this.slideRightNo = new double[TFspecies.length];
+            this.slideIntervalLength = new double[TFspecies.length];
+            this.isBiasedRandomWalk = new boolean[TFspecies.length];
 
 
             if (printFinalOccupancy) {
-                this.finalTFOccupancy = new int[TFspecies.length][strand.length][TFdirections];
+                this.finalTFOccupancy = new int[TFspecies.length][strand.length * TFdirections];
                 for (int i = 0; i < TFspecies.length; i++) {
                     for (int j = 0; j < strand.length; j++) {
                         for (int k = 0; k < TFdirections; k++) {
-                            this.finalTFOccupancy[i][j][k] = 0;
+                            this.finalTFOccupancy[i][index(j, k)] = 0;
                         }
                     }
                 }
 
             }
 
-            this.TFdirections = TFdirections;
-            isTargetSite = new int[TFspecies.length][strand.length][TFdirections];
+            isTargetSite = new int[TFspecies.length][strand.length * TFdirections];
             //this.TFSpecificWaitingTime = TFSpecificWaitingTime;
-            firstReached = new double[TFspecies.length][strand.length][TFdirections];
+            firstReached = new double[TFspecies.length][strand.length * TFdirections];
 
             this.collisionsCount = new int[strand.length];
             for (int i = 0; i < strand.length; i++) {
                 this.collisionsCount[i] = 0;
             }
 
-            //sectors
+            //sectors (the sectors are indexed by a Fenwick tree, so they can be small)
             if (DNAsectorSize == 0) {
-                DNAsectorSize = (int) Math.floor(Math.sqrt(strand.length));
+                DNAsectorSize = Math.min(Constants.DNA_SECTOR_SIZE_AUTO, Math.max(1, strand.length));
             } else if (DNAsectorSize > strand.length || DNAsectorSize < 0) {
                 DNAsectorSize = strand.length;
             }
             this.DNAsectorSize = DNAsectorSize;
             this.DNAsectorsCount = (int) Math.ceil((double) strand.length / DNAsectorSize);
             this.effectiveTFsectorsAvailabilitySum = new int[TFspecies.length][this.DNAsectorsCount];
+            this.effectiveTFsectorsAvailabilityIndex = new FenwickTree[TFspecies.length];
             sectorID = new int[strand.length];
             for (int i = 0; i < strand.length; i++) {
                 sectorID[i] = i / this.DNAsectorSize;
             }
+            this.closedPositions = new PositionSet(strand.length);
+            for (int i = 0; i < strand.length; i++) {
+                if (closed[i] != Constants.BP_IS_OPEN) {
+                    this.closedPositions.add(i);
+                }
+            }
+
+            // the landscapes which are not drawn at random are loaded from the cache if they were computed before
+            AffinityLandscapeCache cache = null;
+            byte[] strandDigest = null;
+            if (!n.ip.AFFINITY_CACHE_FOLDER.value.trim().isEmpty()) {
+                cache = new AffinityLandscapeCache(n.ip.AFFINITY_CACHE_FOLDER.value.trim());
+                AffinityLandscapeCache.Key strandKey = new AffinityLandscapeCache.Key("strand");
+                strandDigest = strandKey.add(strand).digest();
+            }
 
             for (int i = 0; i < TFspecies.length; i++) {
                 TFsize[i] = TFspecies[i].sizeTotal;
+                boolean isLandscapeFile = TFspecies[i].landscapeFile != null && !TFspecies[i].landscapeFile.isEmpty();
+                String[] cacheKeys = getAffinityCacheKeys(cache, TFspecies[i], strandDigest);
+                DoubleBuffer cachedLR = loadCachedAffinities(cache, cacheKeys[0]);
+                DoubleBuffer cachedRL = isLandscapeFile ? loadCachedAffinities(cache, cacheKeys[1]) : null;
+                boolean isRLcomputed = false;
                 //read the affinities LR
-                if (TFspecies[i].landscapeFile != null && !TFspecies[i].landscapeFile.isEmpty()) {
+                if (cachedLR != null && (cachedRL != null || !isLandscapeFile)) {
+                    // the landscapes are read from the cache
+                } else if (isLandscapeFile) {
                     //read from a file
+                    cachedLR = null;
+                    cachedRL = null;
+                    TFaffinitiesLR[i] = new double[strand.length];
+                    TFaffinitiesRL[i] = new double[strand.length];
                     try {
-                        ArrayList<String> lines = Utils.readLinesFromFile(TFspecies[i].landscapeFile);
-                        //if not enough lines in the affinity file then stop the simulation
-                        if ((lines.size() - TFspecies[i].landscapeEscapeLines) < strand.length) {
+                        String str = DNAFilesParser.landscapeFileParser(TFspecies[i].landscapeFile,
+                                TFspecies[i].landscapeEscapeLines, TFspecies[i].landscapePosCol,
+                                TFspecies[i].landscapeAffinityColLR, TFspecies[i].landscapeAffinityColRL,
+                                this.subsequence.start, TFaffinitiesLR[i], TFaffinitiesRL[i]);
+                        //if the affinity file could not be parsed then stop the simulation
+                        if (!str.isEmpty()) {
                             n.stopSimulation("error while parsing the affinity landscape file "
-                                    + TFspecies[i].landscapeFile + ": insufficient entries in the affinity file");
-                        }
-
-                        long currentPos;
-                        int actualPos = Constants.NONE;
-                        double affinityLR, affinityRL;
-                        double[] bufferValues;
-
-                        int maxCol = Math.max(TFspecies[i].landscapeAffinityColLR, TFspecies[i].landscapeAffinityColRL);
-                        maxCol = Math.max(maxCol, TFspecies[i].landscapePosCol);
-
-                        for (int k = TFspecies[i].landscapeEscapeLines; k < lines.size() && actualPos < this.strand.length; k++) {
-                            bufferValues = Utils.parseCSVline(lines.get(k), Constants.AFFINITY_CSV_FILE_DELIMITER, Constants.NONE);
-                            //Utils.containsValue(bufferValues, Constants.NONE) ||
-                            if (bufferValues == null || bufferValues.length <= maxCol) {
-                                n.stopSimulation("error while parsing the affinity landscape file "
-                                        + TFspecies[i].landscapeFile + ": could not parse line " + i + ": " + lines.get(k));
-                            }
-                            assert bufferValues != null;
-                            currentPos = (int) Math.round(bufferValues[TFspecies[i].landscapePosCol]);
-                            actualPos = (int) (currentPos - this.subsequence.start);
-                            if (actualPos >= 0 && actualPos < this.strand.length) {
-                                affinityLR = bufferValues[TFspecies[i].landscapeAffinityColLR];
-                                affinityRL = bufferValues[TFspecies[i].landscapeAffinityColRL];
-                                TFaffinitiesLR[i][actualPos] = affinityLR;
-                                TFaffinitiesRL[i][actualPos] = affinityRL;
-                            }
+                                    + TFspecies[i].landscapeFile + ": " + str);
                         }
                     } catch (IOException e) {
                         // TODO Auto-generated catch block
@@ -484,15 +742,31 @@ public class DNA implements Serializable {
 
                 } else if (TFspecies[i].pfm != null && TFspecies[i].pfm.motifSize > 0) {
                     //generate from PWM
-                    TFaffinitiesLR[i] = CellUtils.computeTFAffinities(generator, strand, TFspecies[i].pfm,
-                            TFspecies[i].sizeLeft, TFspecies[i].sizeTotal, TFspecies[i].es, 0,
-                            TFspecies[i].affinityLandscapeRoughness);
+                    if (TFspecies[i].pfm.isCorrect && TFdirections == 2
+                            && loadCachedAffinities(cache, cacheKeys[1]) == null) {
+                        // score both strands in one pass
+                        TFaffinitiesLR[i] = new double[strand.length];
+                        TFaffinitiesRL[i] = new double[strand.length];
+                        CellUtils.computeTFAffinities(strand, TFspecies[i].pfm, TFspecies[i].sizeLeft,
+                                TFspecies[i].sizeTotal, TFspecies[i].es, TFaffinitiesLR[i], TFaffinitiesRL[i]);
+                        isRLcomputed = true;
+                    } else {
+                        TFaffinitiesLR[i] = CellUtils.computeTFAffinities(generator, strand, TFspecies[i].pfm,
+                                TFspecies[i].sizeLeft, TFspecies[i].sizeTotal, TFspecies[i].es, 0,
+                                TFspecies[i].affinityLandscapeRoughness);
+                    }
                 } else {
                     //generate from sequence
                     TFaffinitiesLR[i] = CellUtils.computeTFAffinities(generator, strand, TFspecies[i].dbd,
                             TFspecies[i].sizeLeft, TFspecies[i].sizeTotal, TFspecies[i].es, 0,
                             TFspecies[i].affinityLandscapeRoughness);
                 }
+                if (cachedLR == null) {
+                    storeCachedAffinities(cache, cacheKeys[0], TFaffinitiesLR[i]);
+                    if (isLandscapeFile) {
+                        storeCachedAffinities(cache, cacheKeys[1], TFaffinitiesRL[i]);
+                    }
+                }
 
                 effectiveTFavailabilitySum[i] = 0;
                 effectiveTFavailabilityMaxSum[i] = 0;
@@ -500,62 +774,79 @@ public class DNA implements Serializable {
                     this.effectiveTFsectorsAvailabilitySum[i][j] = 0;
                 }
 
-                for (int j = 0; j < strand.length; j++) {
-                    if (TFaffinitiesLR[i][j] != Constants.NONE) {
-                        effectiveTFavailability[i][j] = true;
-                    } else {
-                        TFaffinitiesLR[i][j] = 0;
-                        effectiveTFavailability[i][j] = false;
-                    }
+                effectiveTFavailability[i] = new LongBitSet(strand.length);
+                final int species = i;
+                final double specificWaitingTime = TFspecies[i].specificWaitingTime;
+                final double[] affinitiesLR = TFaffinitiesLR[i];
+                final DoubleBuffer mappedLR = cachedLR;
+                ParallelChunks.forEach(strand.length, new ParallelChunks.Body() {
+                    public void run(int chunk, int start, int end) {
+                        for (int j = start; j < end; j++) {
+                            double affinity = mappedLR != null ? mappedLR.get(j) : affinitiesLR[j];
+                            if (affinity != Constants.NONE) {
+                                effectiveTFavailability[species].set(j);
+                            } else {
+                                affinity = 0;
+                            }
 
-                    TFavgMoveRate[i][j][0] =
-                            CellUtils.computeAvgMoveRate(TFspecies[i].specificWaitingTime, -TFaffinitiesLR[i][j]);
-                    this.isTargetSite[i][j][0] = Constants.NONE;
-                    firstReached[i][j][0] = Constants.NONE;
-                    effectiveTFOccupancy[i][j][0] = 0;
-                }
+                            TFavgMoveRate[species][index(j, 0)] =
+                                    CellUtils.computeAvgMoveRate(specificWaitingTime, -affinity);
+                            isTargetSite[species][index(j, 0)] = Constants.NONE;
+                            firstReached[species][index(j, 0)] = Constants.NONE;
+                            effectiveTFOccupancy[species][index(j, 0)] = 0;
+                        }
+                    }
+                });
 
                 // FG: compute TF availability sum before closing inaccessible regions
-                for (int j = 0; j < strand.length; j++) {
-                    if (effectiveTFavailability[i][j]) {
-                        effectiveTFavailabilitySum[i]++;
-                        // increase the number of available spots for sectors position/ sectorSize
-                        effectiveTFsectorsAvailabilitySum[i][this.sectorID[j]]++;
-                    }
+                for (int j = 0; j < this.DNAsectorsCount; j++) {
+                    effectiveTFsectorsAvailabilitySum[i][j] = effectiveTFavailability[i].count(j * this.DNAsectorSize,
+                            Math.min(strand.length, (j + 1) * this.DNAsectorSize));
+                    effectiveTFavailabilitySum[i] += effectiveTFsectorsAvailabilitySum[i][j];
                 }
+                this.effectiveTFsectorsAvailabilityIndex[i] = new FenwickTree(this.effectiveTFsectorsAvailabilitySum[i]);
 
                 // FG: recompute affinity landscape due to the closed regions (here, from btrack file)
                 recomputeTFAffinityLandscapeForClosedRegions(0, strand.length, i);
 
                 // FG: compute maximal TF availability sum
-                for (int j = 0; j < strand.length; j++) {
-                    if (effectiveTFavailability[i][j]) {
-                        effectiveTFavailabilityMaxSum[i]++;
-                    }
-                }
+                effectiveTFavailabilityMaxSum[i] = effectiveTFavailability[i].count(0, strand.length);
 
                 // read the affinities RL
                 if (TFdirections == 2) {
                     //read the affinities LR
-                    if (TFspecies[i].landscapeFile != null && !TFspecies[i].landscapeFile.isEmpty()) {
+                    if (isLandscapeFile) {
                         // do nothing it was already processed
+                    } else if (isRLcomputed) {
+                        storeCachedAffinities(cache, cacheKeys[1], TFaffinitiesRL[i]);
+                    } else if ((cachedRL = loadCachedAffinities(cache, cacheKeys[1])) != null) {
+                        // read from the cache
                     } else if (TFspecies[i].pfm != null && TFspecies[i].pfm.motifSize > 0) {
                         TFaffinitiesRL[i] = CellUtils.computeTFAffinities(generator, strand, TFspecies[i].pfm,
                                 TFspecies[i].sizeLeft, TFspecies[i].sizeTotal, TFspecies[i].es, 1,
                                 TFspecies[i].affinityLandscapeRoughness);
+                        storeCachedAffinities(cache, cacheKeys[1], TFaffinitiesRL[i]);
                     } else {
                         TFaffinitiesRL[i] = CellUtils.computeTFAffinities(generator, strand, TFspecies[i].dbd,
                                 TFspecies[i].sizeLeft, TFspecies[i].sizeTotal, TFspecies[i].es, 1,
                                 TFspecies[i].affinityLandscapeRoughness);
+                        storeCachedAffinities(cache, cacheKeys[1], TFaffinitiesRL[i]);
                     }
 
-                    for (int j = 0; j < strand.length; j++) {
-                        TFavgMoveRate[i][j][1] =
-                                CellUtils.computeAvgMoveRate(TFspecies[i].specificWaitingTime, -TFaffinitiesRL[i][j]);
-                        effectiveTFOccupancy[i][j][1] = 0;
-                        this.isTargetSite[i][j][1] = Constants.NONE;
-                        firstReached[i][j][1] = Constants.NONE;
-                    }
+                    final double[] affinitiesRL = TFaffinitiesRL[i];
+                    final DoubleBuffer mappedRL = cachedRL;
+                    ParallelChunks.forEach(strand.length, new ParallelChunks.Body() {
+                        public void run(int chunk, int start, int end) {
+                            for (int j = start; j < end; j++) {
+                                double affinity = mappedRL != null ? mappedRL.get(j) : affinitiesRL[j];
+                                TFavgMoveRate[species][index(j, 1)] =
+                                        CellUtils.computeAvgMoveRate(specificWaitingTime, -affinity);
+                                effectiveTFOccupancy[species][index(j, 1)] = 0;
+                                isTargetSite[species][index(j, 1)] = Constants.NONE;
+                                firstReached[species][index(j, 1)] = Constants.NONE;
+                            }
+                        }
+                    });
                 }
 
                 TFidPos.put(TFspecies[i].id, i);
@@ -563,18 +854,17 @@ public class DNA implements Serializable {
                 TFposName.put(i, TFspecies[i].name);
 
                 //slide left and right probabilities
-                double intervalLength = TFspecies[i].slideRightNo - TFspecies[i].hopNo;
-                double affinityRightLeftRatio;
-                for (int j = 0; j < strand.length; j++) {
-                    for (int dir = 0; dir < TFdirections; dir++) {
-                        //initialise
-                        this.TFSlideLeftNo[i][j][dir] = TFspecies[i].slideLeftNo;
-                        this.TFSlideRightNo[i][j][dir] = TFspecies[i].slideRightNo;
-                        if (j > 0 && j < strand.length - 1 && TFspecies[i].isBiasedRandomWalk) {
-                            affinityRightLeftRatio = TFavgMoveRate[i][j - 1][dir] / TFavgMoveRate[i][j + 1][dir];
-                            this.TFSlideLeftNo[i][j][dir] = intervalLength / (1 + affinityRightLeftRatio);
-                            this.TFSlideRightNo[i][j][dir] =
-                                    (affinityRightLeftRatio * intervalLength) / (1 + affinityRightLeftRatio);
+                this.slideLeftNo[i] = TFspecies[i].slideLeftNo;
+                this.slideRightNo[i] = TFspecies[i].slideRightNo;
+                this.slideIntervalLength[i] = TFspecies[i].slideRightNo - TFspecies[i].hopNo;
+                this.isBiasedRandomWalk[i] = TFspecies[i].isBiasedRandomWalk;
+                if (TFspecies[i].isBiasedRandomWalk && !n.ip.SLIDE_PROBABILITIES_ON_DEMAND.value) {
+                    this.TFSlideLeftNo[i] = new double[strand.length * TFdirections];
+                    this.TFSlideRightNo[i] = new double[strand.length * TFdirections];
+                    for (int j = 0; j < strand.length; j++) {
+                        for (int dir = 0; dir < TFdirections; dir++) {
+                            this.TFSlideLeftNo[i][index(j, dir)] = computeTFSlideLeftNo(i, j, dir);
+                            this.TFSlideRightNo[i][index(j, dir)] = computeTFSlideRightNo(i, j, dir);
                         }
                     }
                 }
@@ -590,14 +880,14 @@ public class DNA implements Serializable {
                 direction = n.tsg.ts.get(i).region.direction;
                 if (direction >= 0 && direction < TFdirections) {
                     for (int k = startRel; k < endRel; k++) {
-                        this.isTargetSite[n.tsg.ts.get(i).TFid][k][direction] = n.tsg.ts.get(i).targetSiteID;
+                        this.isTargetSite[n.tsg.ts.get(i).TFid][index(k, direction)] = n.tsg.ts.get(i).targetSiteID;
                         this.areTargetSites = true;
                     }
                 } else {
                     //if there is no direction specified then mark all directions
                     for (int k = startRel; k < endRel; k++) {
                         for (int dir = 0; dir < TFdirections; dir++) {
-                            this.isTargetSite[n.tsg.ts.get(i).TFid][k][dir] = n.tsg.ts.get(i).targetSiteID;
+                            this.isTargetSite[n.tsg.ts.get(i).TFid][index(k, dir)] = n.tsg.ts.get(i).targetSiteID;
                             this.areTargetSites = true;
                         }
                     }
@@ -623,7 +913,7 @@ public class DNA implements Serializable {
     public void printAffinities(String path, String filename, int start, int end, TFSpecies[] tfs,
                                 boolean fullOccupancy, int wigStepSize, double wigThreshold, boolean printBindingEnergy)
     {
-        double[][][] bufferTFaffinity = new double[TFavgMoveRate.length][strand.length][this.TFdirections];
+        double[][] bufferTFaffinity = new double[TFavgMoveRate.length][strand.length * this.TFdirections];
         double[][] avg = new double[effectiveTFOccupancy.length][this.TFdirections];
 
         double[][] cutoff = new double[TFavgMoveRate.length][this.TFdirections];
@@ -634,7 +924,7 @@ public class DNA implements Serializable {
             for (int i = 0; i < TFavgMoveRate.length; i++) {
                 //init occupancy
                 for (int j = 0; j < strand.length; j++) {
-                    bufferTFaffinity[i][j][dir] = 0;
+                    bufferTFaffinity[i][index(j, dir)] = 0;
                 }
 
                 // add occupancy on the entire length of the TFs
@@ -645,12 +935,12 @@ public class DNA implements Serializable {
                     }
                     for (int k = j; k < max; k++) {
                         if (k < strand.length - TFsize[i] + 1) {
-                            double tfWaitingTime = 1.0 / TFavgMoveRate[i][j][dir];
+                            double tfWaitingTime = 1.0 / TFavgMoveRate[i][index(j, dir)];
                             if (printBindingEnergy) {
-                                bufferTFaffinity[i][k][dir] +=
+                                bufferTFaffinity[i][index(k, dir)] +=
                                         CellUtils.computeBindingEnergy(tfs[i].specificWaitingTime, tfWaitingTime);
                             } else {
-                                bufferTFaffinity[i][k][dir] += tfWaitingTime;
+                                bufferTFaffinity[i][index(k, dir)] += tfWaitingTime;
                             }
                         }
 
@@ -661,14 +951,14 @@ public class DNA implements Serializable {
                 if (!printBindingEnergy) {
                     cutoff[i][dir] = 0;
                     for (int j = 0; j < strand.length; j++) {
-                        if (cutoff[i][dir] < bufferTFaffinity[i][j][dir]) {
-                            cutoff[i][dir] = bufferTFaffinity[i][j][dir];
+                        if (cutoff[i][dir] < bufferTFaffinity[i][index(j, dir)]) {
+                            cutoff[i][dir] = bufferTFaffinity[i][index(j, dir)];
                         }
                     }
                     cutoff[i][dir] = cutoff[i][dir] * wigThreshold;
                     avg[i][dir] = 0;
                     for (int j = 0; j < strand.length; j++) {
-                        avg[i][dir] += bufferTFaffinity[i][j][dir];
+                        avg[i][dir] += bufferTFaffinity[i][index(j, dir)];
                     }
                     avg[i][dir] /= strand.length;
                 }
@@ -730,10 +1020,10 @@ public class DNA implements Serializable {
                         affinity = 0;
                         steps = 0;
                         for (int k = i; k < Math.min(i + wigStepSize, end); k++) {
-                            if ((wigThreshold >= 0 && bufferTFaffinity[j][k][dir] > cutoff[j][dir] && !printBindingEnergy)
+                            if ((wigThreshold >= 0 && bufferTFaffinity[j][index(k, dir)] > cutoff[j][dir] && !printBindingEnergy)
                                     || (wigThreshold >= 0 && printBindingEnergy)
-                                    || (wigThreshold <= 0 && bufferTFaffinity[j][k][dir] > avg[j][dir])) {
-                                affinity += bufferTFaffinity[j][k][dir];
+                                    || (wigThreshold <= 0 && bufferTFaffinity[j][index(k, dir)] > avg[j][dir])) {
+                                affinity += bufferTFaffinity[j][index(k, dir)];
                             }
 
                             steps++;
@@ -761,7 +1051,7 @@ public class DNA implements Serializable {
     public void updateFinalPosition(Cell n) {
         for (int i = 0; i < n.dbp.length; i++) {
             if (n.dbp[i].getPosition() != Constants.NONE) {
-                this.finalTFOccupancy[n.dbp[i].speciesID][n.dbp[i].getPosition()][n.dbp[i].getDirection()]++;
+                this.finalTFOccupancy[n.dbp[i].speciesID][index(n.dbp[i].getPosition(), n.dbp[i].getDirection())]++;
             }
         }
 
@@ -775,7 +1065,7 @@ public class DNA implements Serializable {
     public void printFinalPosition(String path, String filename, int start, int end, boolean fullOccupancy,
                                    int wigStepSize, double wigThreshold)
     {
-        int[][][] bufferTFoccupancy = new int[finalTFOccupancy.length][strand.length][this.TFdirections];
+        int[][] bufferTFoccupancy = new int[finalTFOccupancy.length][strand.length * this.TFdirections];
 
         double[][] cutoff = new double[finalTFOccupancy.length][this.TFdirections];
         double[][] avg = new double[finalTFOccupancy.length][this.TFdirections];
@@ -786,7 +1076,7 @@ public class DNA implements Serializable {
             for (int i = 0; i < finalTFOccupancy.length; i++) {
                 //init occupancy
                 for (int j = 0; j < strand.length; j++) {
-                    bufferTFoccupancy[i][j][dir] = 0;
+                    bufferTFoccupancy[i][index(j, dir)] = 0;
                 }
 
                 // add occupancy on the entire length of the TFs
@@ -796,7 +1086,7 @@ public class DNA implements Serializable {
                         max = Math.min(strand.length, j + TFsize[i]);
                     }
                     for (int k = j; k < max; k++) {
-                        bufferTFoccupancy[i][k][dir] += finalTFOccupancy[i][j][dir];
+                        bufferTFoccupancy[i][index(k, dir)] += finalTFOccupancy[i][index(j, dir)];
 
                     }
                 }
@@ -804,8 +1094,8 @@ public class DNA implements Serializable {
                 //normalise
                 cutoff[i][dir] = 0;
                 for (int j = 0; j < strand.length; j++) {
-                    if (cutoff[i][dir] < bufferTFoccupancy[i][j][dir]) {
-                        cutoff[i][dir] = bufferTFoccupancy[i][j][dir];
+                    if (cutoff[i][dir] < bufferTFoccupancy[i][index(j, dir)]) {
+                        cutoff[i][dir] = bufferTFoccupancy[i][index(j, dir)];
                     }
                 }
                 cutoff[i][dir] = cutoff[i][dir] * wigThreshold;
@@ -814,7 +1104,7 @@ public class DNA implements Serializable {
                 //computes the threshold of the wig if this is set to autoselect
                 avg[i][dir] = 0;
                 for (int j = 0; j < strand.length; j++) {
-                    avg[i][dir] += bufferTFoccupancy[i][j][dir];
+                    avg[i][dir] += bufferTFoccupancy[i][index(j, dir)];
                 }
                 avg[i][dir] /= strand.length;
             }
@@ -876,8 +1166,8 @@ public class DNA implements Serializable {
                         occupancy = 0;
                         steps = 0;
                         for (int k = i; k < Math.min(i + wigStepSize, end); k++) {
-                            if ((wigThreshold >= 0 && bufferTFoccupancy[j][k][dir] > cutoff[j][dir]) || (wigThreshold <= 0 && bufferTFoccupancy[j][k][dir] > avg[j][dir])) {
-                                occupancy += bufferTFoccupancy[j][k][dir];
+                            if ((wigThreshold >= 0 && bufferTFoccupancy[j][index(k, dir)] > cutoff[j][dir]) || (wigThreshold <= 0 && bufferTFoccupancy[j][index(k, dir)] > avg[j][dir])) {
+                                occupancy += bufferTFoccupancy[j][index(k, dir)];
                             }
                             steps++;
                         }
@@ -963,6 +1253,42 @@ public class DNA implements Serializable {
     }
 
 
+    /**
+     * marks the open positions in [start, end) as available for a TF species and updates the availability sums.
+     * The bits are set a word at a time and the sums are updated once per sector
+     */
+    private void setTFavailable(int speciesID, int start, int end) {
+        end = Math.min(end, strand.length);
+        for (int from = Math.max(0, start), to; from < end; from = to) {
+            int sector = this.sectorID[from];
+            to = Math.min(end, (sector + 1) * this.DNAsectorSize);
+            int added = effectiveTFavailability[speciesID].setRangeExcept(from, to, this.closedPositions.bits());
+            if (added > 0) {
+                this.effectiveTFsectorsAvailabilitySum[speciesID][sector] += added;
+                this.effectiveTFsectorsAvailabilityIndex[speciesID].add(sector, added);
+                this.effectiveTFavailabilitySum[speciesID] += added;
+            }
+        }
+    }
+
+    /**
+     * marks the positions in [start, end) as unavailable for a TF species and updates the availability sums.
+     * The bits are cleared a word at a time and the sums are updated once per sector
+     */
+    private void setTFunavailable(int speciesID, int start, int end) {
+        end = Math.min(end, strand.length);
+        for (int from = Math.max(0, start), to; from < end; from = to) {
+            int sector = this.sectorID[from];
+            to = Math.min(end, (sector + 1) * this.DNAsectorSize);
+            int removed = effectiveTFavailability[speciesID].clearRange(from, to);
+            if (removed > 0) {
+                this.effectiveTFsectorsAvailabilitySum[speciesID][sector] -= removed;
+                this.effectiveTFsectorsAvailabilityIndex[speciesID].add(sector, -removed);
+                this.effectiveTFavailabilitySum[speciesID] -= removed;
+            }
+        }
+    }
+
     /** FG
      * Make region inaccessible by free TFs
      * @param left      inclusive
@@ -972,13 +1298,7 @@ public class DNA implements Serializable {
     private void closeRegionInAffinityLandscape(int left, int right, int speciesID) {
         int start = Math.max(0, left - TFsize[speciesID] + 1);
         int end = Math.min(right, strand.length);
-        for (int j = start; j < end; j++) {
-            if (effectiveTFavailability[speciesID][j]) {
-                this.effectiveTFsectorsAvailabilitySum[speciesID][this.sectorID[j]]--;
-                this.effectiveTFavailabilitySum[speciesID]--;
-                effectiveTFavailability[speciesID][j] = false;
-            }
-        }
+        this.setTFunavailable(speciesID, start, end);
     }
 
     /** FG
@@ -999,53 +1319,37 @@ public class DNA implements Serializable {
     }
 
     /** FG
-     * recomputes the TF affinity landscape when the DNA region is derepressed
+     * recomputes the TF affinity landscape when the DNA regions opened by the last derepression are available again.
+     * Only the opened regions and the footprints of the molecules bound around them are visited; the regions which are
+     * still covered by other repression windows stay repressed, so they do not need to be closed again
      */
-    private void recomputeTFAffinityLandscapeOnDerepression(Cell n, int boundaryLeft, int boundaryRight, int proteinID,
-                                                            double time)
-    {
+    private void recomputeTFAffinityLandscapeOnDerepression(Cell n) {
         int start, end, boundMoleculeID;
 
-        //recompute affinity landscape for each TF species
-        for (int speciesID = 0; speciesID < TFsize.length; speciesID++) {
-            start = Math.max(0, boundaryLeft - TFsize[speciesID] + 1);
-            end = Math.min(this.strand.length - TFsize[speciesID] + 1, boundaryRight + 1);
-            for (int bpIdx = start; bpIdx < end; bpIdx++) {
-                if (!effectiveTFavailability[speciesID][bpIdx] && closed[bpIdx] == Constants.BP_IS_OPEN) {
-                    this.effectiveTFsectorsAvailabilitySum[speciesID][this.sectorID[bpIdx]]++;
-                    this.effectiveTFavailabilitySum[speciesID]++;
-                    effectiveTFavailability[speciesID][bpIdx] = true;
-                }
+        for (int i = 0; i < repressedRegions.getChangedNo(); i++) {
+            int left = repressedRegions.getChangedStart(i);
+            int right = repressedRegions.getChangedEnd(i);
+
+            //recompute affinity landscape for each TF species
+            for (int speciesID = 0; speciesID < TFsize.length; speciesID++) {
+                start = Math.max(0, left - TFsize[speciesID] + 1);
+                end = Math.min(this.strand.length - TFsize[speciesID] + 1, right);
+                this.setTFavailable(speciesID, start, end);
+                recomputeTFAffinityLandscapeForClosedRegions(start, end + TFsize[speciesID] - 1, speciesID);
             }
-            recomputeTFAffinityLandscapeForClosedRegions(start, end + TFsize[speciesID] - 1, speciesID);
-        }
-
-        // find all repressors in the repressed region and close chromatin in their repression regions
-        start = updateLeftBoundary(boundaryLeft - n.maxRepressionLeftSize - n.maxTFSize);
-        end = updateRightBoundary(boundaryRight + n.maxRepressionRightSize + n.maxTFSize);
-        for (int bpIdx = start; bpIdx <= end; bpIdx++) {
-            boundMoleculeID = getBoundMolecule(bpIdx);
-            if (boundMoleculeID != Constants.NONE) {
-                int size = n.dbp[boundMoleculeID].size;
-                for (int speciesID = 0; speciesID < TFsize.length; speciesID++) {
-                    closeRegionInAffinityLandscape(bpIdx, bpIdx + size, speciesID);
-                }
-                if (n.dbp[boundMoleculeID].isRepressingDNA() && boundMoleculeID != proteinID) {
-                    int speciesID = n.dbp[boundMoleculeID].speciesID;
-                    int boundaryLeft_ = bpIdx - n.TFspecies[speciesID].repressionLeftSize;
-                    int boundaryRight_ = bpIdx + size + n.TFspecies[speciesID].repressionRightSize;
-                    boundaryLeft_ = updateLeftBoundary(boundaryLeft_);
-                    boundaryRight_ = updateRightBoundary(boundaryRight_);
-                    for (int speciesID_ = 0; speciesID_ < TFsize.length; speciesID_++) {
-                        closeRegionInAffinityLandscape(boundaryLeft_, boundaryRight_, speciesID_);
-                    }
-                    this.repressDNA(boundaryLeft_, boundaryRight_ - 1, n);
-                    if (n.isInDebugMode()) {
-                        n.printDebugInfo(time + ": TF " + boundMoleculeID + " of type " + n.TFspecies[speciesID].name +
-                                " continued repression from position " + boundaryLeft_ + " to " + (boundaryRight_ - 1));
+
+            // the molecules whose footprint overlaps the reopened positions keep them unavailable
+            start = updateLeftBoundary(left - 2 * n.maxTFSize);
+            end = updateRightBoundary(right + n.maxTFSize);
+            for (int bpIdx = start; bpIdx <= end; bpIdx++) {
+                boundMoleculeID = occupied[bpIdx];
+                if (boundMoleculeID != Constants.NONE && (bpIdx == 0 || occupied[bpIdx - 1] != boundMoleculeID)) {
+                    int size = n.dbp[boundMoleculeID].size;
+                    for (int speciesID = 0; speciesID < TFsize.length; speciesID++) {
+                        closeRegionInAffinityLandscape(bpIdx, bpIdx + size, speciesID);
                     }
+                    bpIdx += size - 1;
                 }
-                bpIdx += size - 1;
             }
         }
     }
@@ -1061,7 +1365,7 @@ public class DNA implements Serializable {
         for (int i = 0; i < TFsize.length; i++) {
 
             start = Math.max(0, position - TFsize[i] + 1);
-            if (!this.effectiveTFavailability[i][Math.max(0, start - 1)]) {
+            if (!this.effectiveTFavailability[i].get(Math.max(0, start - 1))) {
                 buffer = this.findLastBoundMolecule(start, position - 1);
                 if (buffer[0] != Constants.NONE) {
                     start = buffer[1] + 2;
@@ -1073,7 +1377,7 @@ public class DNA implements Serializable {
             }
 
             end = Math.min(position + size, this.strand.length - 1);
-            if (!this.effectiveTFavailability[i][end]) {
+            if (!this.effectiveTFavailability[i].get(end)) {
                 buffer = this.findFirstBoundMolecule(end, Math.min(end + TFsize[i] - 1, strand.length - 1));
                 if (buffer[0] != Constants.NONE) {
                     end = buffer[1] - TFsize[i];
@@ -1085,31 +1389,31 @@ public class DNA implements Serializable {
             }
 
             end = Math.min(strand.length - TFsize[i] + 1, end);
-            for (int j = start; j < end; j++) {
-                if (!effectiveTFavailability[i][j] && closed[j] == Constants.BP_IS_OPEN) {
-                    effectiveTFavailability[i][j] = true;
-                    this.effectiveTFsectorsAvailabilitySum[i][this.sectorID[j]]++;
-                    this.effectiveTFavailabilitySum[i]++;
-                }
-            }
+            this.setTFavailable(i, start, end);
             recomputeTFAffinityLandscapeForRepressedRegions(start, end + TFsize[i] - 1, i);
         }
     }
 
 
     /** FG
-     * Mark open bps between given boundaries as repressed
+     * Add a repression window between given boundaries and mark the open bps which were not covered by another window
+     * as repressed. The intervals which became repressed are kept by repressedRegions until the next update
      * @param boundaryLeft  inclusive
      * @param boundaryRight inclusive
      * @param n             cell
      */
     public void repressDNA(int boundaryLeft, int boundaryRight, Cell n) {
-        for (int pos = boundaryLeft; pos <= boundaryRight; pos++) {
-            if (this.closed[pos] == Constants.BP_IS_OPEN) {
-                this.closed[pos] = Constants.BP_IS_REPRESSED;
-                if (n.ip.OUTPUT_REPRESSED_LENGTHS.value) {
-                    this.currentRepressedLength++;
-                    modifyRepressionScore(n, pos, true);
+        int changedNo = this.repressedRegions.add(boundaryLeft, boundaryRight + 1);
+        for (int i = 0; i < changedNo; i++) {
+            int end = this.repressedRegions.getChangedEnd(i);
+            for (int pos = this.repressedRegions.getChangedStart(i); pos < end; pos++) {
+                if (this.closed[pos] == Constants.BP_IS_OPEN) {
+                    this.closed[pos] = Constants.BP_IS_REPRESSED;
+                    this.closedPositions.add(pos);
+                    if (n.ip.OUTPUT_REPRESSED_LENGTHS.value) {
+                        this.currentRepressedLength++;
+                        modifyRepressionScore(n, pos, true);
+                    }
                 }
             }
         }
@@ -1118,7 +1422,7 @@ public class DNA implements Serializable {
     public void modifyRepressionScore(Cell n, int pos, boolean increase) {
         for (int speciesID = 0; speciesID < n.TFspecies.length; speciesID++) {
             for (int dir = 0; dir < this.TFdirections; dir++) {
-                double moveRate = n.TFspecies[speciesID].calcMoveRate(n.dna.TFavgMoveRate[speciesID][pos][dir], false);
+                double moveRate = n.TFspecies[speciesID].calcMoveRate(getTFavgMoveRate(speciesID, pos, dir), false);
                 double scoreIncrement = increase ? (1.0 / moveRate) : (-1.0 / moveRate);
                 if (n.TFspecies[speciesID].isRepressor()) {
                     this.repressedRepScore += scoreIncrement;
@@ -1130,14 +1434,17 @@ public class DNA implements Serializable {
     }
 
     /** FG
-     * Mark open bps between given boundaries as repressed and recompute affinity landscape
+     * Add a repression window between given boundaries and recompute affinity landscape of the newly repressed bps
      * @param boundaryLeft  inclusive
      * @param boundaryRight inclusive
      * @param n             cell
      */
     public void repress(int boundaryLeft, int boundaryRight, Cell n) {
         repressDNA(boundaryLeft, boundaryRight, n);
-        this.recomputeTFAffinityLandscapeOnRepression(boundaryLeft, boundaryRight);
+        for (int i = 0; i < this.repressedRegions.getChangedNo(); i++) {
+            this.recomputeTFAffinityLandscapeOnRepression(this.repressedRegions.getChangedStart(i),
+                    this.repressedRegions.getChangedEnd(i) - 1);
+        }
     }
 
 
@@ -1160,18 +1467,30 @@ public class DNA implements Serializable {
     }
 
     /** FG
-     * Mark the repressed bps between given boundaries as open
+     * Remove a repression window added before between given boundaries and mark as open the repressed bps which are
+     * not covered by another window. The intervals which were opened are kept by repressedRegions until the next update
      * @param boundaryLeft  inclusive
      * @param boundaryRight inclusive
      * @param n             cell
      */
     public void derepressDNA(int boundaryLeft, int boundaryRight, Cell n) {
-        for (int pos = boundaryLeft; pos <= boundaryRight; pos++) {
-            if (this.closed[pos] == Constants.BP_IS_REPRESSED) {
-                this.closed[pos] = Constants.BP_IS_OPEN;
-                if (n.ip.OUTPUT_REPRESSED_LENGTHS.value) {
-                    this.currentRepressedLength--;
-                    modifyRepressionScore(n, pos, false);
+        this.openRepressedRegions(this.repressedRegions.remove(boundaryLeft, boundaryRight + 1), n);
+    }
+
+    /**
+     * marks as open the repressed bps of the intervals which were uncovered by the last update of repressedRegions
+     */
+    private void openRepressedRegions(int changedNo, Cell n) {
+        for (int i = 0; i < changedNo; i++) {
+            int end = this.repressedRegions.getChangedEnd(i);
+            for (int pos = this.repressedRegions.getChangedStart(i); pos < end; pos++) {
+                if (this.closed[pos] == Constants.BP_IS_REPRESSED) {
+                    this.closed[pos] = Constants.BP_IS_OPEN;
+                    this.closedPositions.remove(pos);
+                    if (n.ip.OUTPUT_REPRESSED_LENGTHS.value) {
+                        this.currentRepressedLength--;
+                        modifyRepressionScore(n, pos, false);
+                    }
                 }
             }
         }
@@ -1181,14 +1500,30 @@ public class DNA implements Serializable {
     }
 
     /** FG
-     * Mark the repressed bps between given boundaries as open and recompute affinity landscape
+     * Remove a repression window between given boundaries and recompute affinity landscape of the opened bps
      * @param boundaryLeft  inclusive
      * @param boundaryRight inclusive
      * @param n             cell
      */
-    public void derepress(Cell n, int boundaryLeft, int boundaryRight, int proteinID, double time) {
+    public void derepress(Cell n, int boundaryLeft, int boundaryRight) {
         derepressDNA(boundaryLeft, boundaryRight, n);
-        this.recomputeTFAffinityLandscapeOnDerepression(n, boundaryLeft, boundaryRight, proteinID, time);
+        this.recomputeTFAffinityLandscapeOnDerepression(n);
+    }
+
+    /** FG
+     * Remove all the repression windows and recompute affinity landscape of the opened bps
+     * @param n cell
+     */
+    public void derepressAll(Cell n) {
+        this.openRepressedRegions(this.repressedRegions.clear(), n);
+        this.recomputeTFAffinityLandscapeOnDerepression(n);
+    }
+
+    /**
+     * returns true if no repression window covers the DNA
+     */
+    public boolean isDerepressed() {
+        return this.repressedRegions.isEmpty();
     }
 
     /**
@@ -1203,17 +1538,11 @@ public class DNA implements Serializable {
             //Remove affinities from the left side
             start = Math.max(0, position - stepSize - TFsize[i] + 1);
             end = position - TFsize[i] + 1;
-            for (int j = start; j < end; j++) {
-                if (effectiveTFavailability[i][j]) {
-                    this.effectiveTFsectorsAvailabilitySum[i][this.sectorID[j]]--;
-                    this.effectiveTFavailabilitySum[i]--;
-                    effectiveTFavailability[i][j] = false;
-                }
-            }
+            this.setTFunavailable(i, start, end);
             //Reallocate affinities to the right side
             start = Math.max(0, position + moleculeSize - stepSize);
             end = position + moleculeSize;
-            if (end < strand.length && !this.effectiveTFavailability[i][end]) {
+            if (end < strand.length && !this.effectiveTFavailability[i].get(end)) {
                 buffer = this.findFirstBoundMolecule(end, Math.min(end + TFsize[i], strand.length));
                 if (buffer[0] != Constants.NONE) {
                     end = buffer[1] - TFsize[i];
@@ -1224,13 +1553,7 @@ public class DNA implements Serializable {
                 }
             }
             int maxPos = strand.length - TFsize[i] + 1;
-            for (int j = start; j < end; j++) {
-                if (j < maxPos && !effectiveTFavailability[i][j] && closed[j] == Constants.BP_IS_OPEN) {
-                    effectiveTFavailability[i][j] = true;
-                    this.effectiveTFsectorsAvailabilitySum[i][this.sectorID[j]]++;
-                    this.effectiveTFavailabilitySum[i]++;
-                }
-            }
+            this.setTFavailable(i, start, Math.min(end, maxPos));
         }
 
     }
@@ -1248,17 +1571,11 @@ public class DNA implements Serializable {
             //Remove affinities from the right side
             start = Math.min(position + moleculeSize, strand.length);
             end = Math.min(start + stepSize, strand.length);
-            for (int j = start; j < end; j++) {
-                if (effectiveTFavailability[i][j]) {
-                    this.effectiveTFsectorsAvailabilitySum[i][this.sectorID[j]]--;
-                    this.effectiveTFavailabilitySum[i]--;
-                    effectiveTFavailability[i][j] = false;
-                }
-            }
+            this.setTFunavailable(i, start, end);
             //Reallocate affinities to the left side
             start = Math.max(0, position - TFsize[i] + 1);
             end = position + stepSize - TFsize[i] + 1;
-            if (!this.effectiveTFavailability[i][Math.max(0, start - 1)]) {
+            if (!this.effectiveTFavailability[i].get(Math.max(0, start - 1))) {
                 buffer = this.findLastBoundMolecule(start, position - 1);
                 if (buffer[0] != Constants.NONE) {
                     start = buffer[1] + 2; // +2 is because of the peculiar findLastBoundMolecule function
@@ -1270,13 +1587,7 @@ public class DNA implements Serializable {
                 }
             }
             int maxPos = strand.length - TFsize[i] + 1;
-            for (int j = start; j < end; j++) {
-                if (j < maxPos && !effectiveTFavailability[i][j] && closed[j] == Constants.BP_IS_OPEN) {
-                    effectiveTFavailability[i][j] = true;
-                    this.effectiveTFsectorsAvailabilitySum[i][this.sectorID[j]]++;
-                    this.effectiveTFavailabilitySum[i]++;
-                }
-            }
+            this.setTFavailable(i, start, Math.min(end, maxPos));
         }
     }
 
@@ -1314,13 +1625,11 @@ public class DNA implements Serializable {
     public int findLastClosedBP(int start, int end) {
         start = Math.max(0, start);
         end = Math.min(end, strand.length - 1);
-        int pos;
-        for (pos = end; pos >= start; pos--) {
-            if (closed[pos] != Constants.BP_IS_OPEN) {
-                return pos;
-            }
+        if (end < start) {
+            return Constants.NONE;
         }
-        return Constants.NONE;
+        int pos = closedPositions.previous(end);
+        return pos >= start ? pos : Constants.NONE;
     }
 
     /**
@@ -1333,13 +1642,11 @@ public class DNA implements Serializable {
     public int findFirstClosedBP(int start, int end) {
         start = Math.max(0, start);
         end = Math.min(end, strand.length - 1);
-        int pos;
-        for (pos = start; pos <= end; pos++) {
-            if (closed[pos] != Constants.BP_IS_OPEN) {
-                return pos;
-            }
+        if (end < start) {
+            return Constants.NONE;
         }
-        return Constants.NONE;
+        int pos = closedPositions.next(start);
+        return pos != Constants.NONE && pos <= end ? pos : Constants.NONE;
     }
 
     /**
@@ -1485,6 +1792,9 @@ public class DNA implements Serializable {
 
         for (int i = start; i < end; i++) {
             this.closed[i] = Constants.BP_IS_OPEN;
+            if (this.closedPositions != null) {
+                this.closedPositions.remove(i);
+            }
         }
     }
 
@@ -1544,7 +1854,7 @@ public class DNA implements Serializable {
     public void printDNAoccupancy(String path, String filename, int start, int end, boolean fullOccupancy,
                                   int wigStepSize, double wigThreshold)
     {
-        double[][][] bufferTFoccupancy = new double[effectiveTFOccupancy.length][strand.length][this.TFdirections];
+        double[][] bufferTFoccupancy = new double[effectiveTFOccupancy.length][strand.length * this.TFdirections];
 
         double[][] cutoff = new double[effectiveTFOccupancy.length][this.TFdirections];
         double[][] avg = new double[effectiveTFOccupancy.length][this.TFdirections];
@@ -1555,7 +1865,7 @@ public class DNA implements Serializable {
             for (int i = 0; i < effectiveTFOccupancy.length; i++) {
                 //init occupancy
                 for (int j = 0; j < strand.length; j++) {
-                    bufferTFoccupancy[i][j][dir] = 0;
+                    bufferTFoccupancy[i][index(j, dir)] = 0;
                 }
 
                 // add occupancy on the entire length of the TFs
@@ -1565,7 +1875,7 @@ public class DNA implements Serializable {
                         max = Math.min(strand.length, j + TFsize[i]);
                     }
                     for (int k = j; k < max; k++) {
-                        bufferTFoccupancy[i][k][dir] += effectiveTFOccupancy[i][j][dir];
+                        bufferTFoccupancy[i][index(k, dir)] += effectiveTFOccupancy[i][index(j, dir)];
 
                     }
                 }
@@ -1573,8 +1883,8 @@ public class DNA implements Serializable {
                 //normalise
                 cutoff[i][dir] = 0;
                 for (int j = 0; j < strand.length; j++) {
-                    if (cutoff[i][dir] < bufferTFoccupancy[i][j][dir]) {
-                        cutoff[i][dir] = bufferTFoccupancy[i][j][dir];
+                    if (cutoff[i][dir] < bufferTFoccupancy[i][index(j, dir)]) {
+                        cutoff[i][dir] = bufferTFoccupancy[i][index(j, dir)];
                     }
                 }
                 cutoff[i][dir] = cutoff[i][dir] * wigThreshold;
@@ -1583,7 +1893,7 @@ public class DNA implements Serializable {
                 //computes the threshold of the wig if this is set to autoselect
                 avg[i][dir] = 0;
                 for (int j = 0; j < strand.length; j++) {
-                    avg[i][dir] += bufferTFoccupancy[i][j][dir];
+                    avg[i][dir] += bufferTFoccupancy[i][index(j, dir)];
                 }
                 avg[i][dir] /= strand.length;
             }
@@ -1655,9 +1965,9 @@ public class DNA implements Serializable {
                         occupancy = 0;
                         steps = 0;
                         for (int k = i; k < Math.min(i + wigStepSize, end); k++) {
-                            if ((wigThreshold >= 0 && bufferTFoccupancy[j][k][dir] > cutoff[j][dir])
-                                    || (wigThreshold <= 0 && bufferTFoccupancy[j][k][dir] > avg[j][dir])) {
-                                occupancy += bufferTFoccupancy[j][k][dir];
+                            if ((wigThreshold >= 0 && bufferTFoccupancy[j][index(k, dir)] > cutoff[j][dir])
+                                    || (wigThreshold <= 0 && bufferTFoccupancy[j][index(k, dir)] > avg[j][dir])) {
+                                occupancy += bufferTFoccupancy[j][index(k, dir)];
                             }
                             steps++;
                         }
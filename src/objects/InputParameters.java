@@ -21,9 +21,13 @@ public class InputParameters  implements Serializable{
 	//SIMULATION PARAMETERS
 	public Parameter<Double> STOP_TIME;
 	public Parameter<Integer> ENSEMBLE_SIZE;
+	public Parameter<Integer> ENSEMBLE_THREADS;
 	public Parameter<Integer> RANDOM_SEED;
 	public Parameter<Integer> DNA_SECTOR_SIZE;
 	public Parameter<Integer> EVENT_LIST_SUBGROUP_SIZE;
+	public Parameter<String> EVENT_LIST_TYPE;
+	public Parameter<String> RANDOM_VARIATES;
+	public Parameter<String> RANDOM_GENERATOR;
 	
 	//SIMULATION-OUTPUT PARAMETERS
 	public Parameter<String> OUTPUT_FOLDER;
@@ -70,7 +74,9 @@ public class InputParameters  implements Serializable{
 
 	//DNA PARAMETERS
 	public Parameter<String> DNA_SEQUENCE_FILE;
+	public Parameter<String> DNA_SEQUENCE_REGION;
 	public Parameter<String> DNA_AVAILABILITY_FILE;
+	public Parameter<String> AFFINITY_CACHE_FOLDER;
 	public Parameter<Double> DNA_DEREPRESSION_RATE;
 
 	//DNA_RANDOM PARAMETERS
@@ -99,6 +105,7 @@ public class InputParameters  implements Serializable{
 	public Parameter<Boolean> CHECK_OCCUPANCY_ON_SLIDING;
 	public Parameter<Boolean> CHECK_OCCUPANCY_ON_REBINDING;
 	public Parameter<Boolean> IS_BIASED_RANDOM_WALK;
+	public Parameter<Boolean> SLIDE_PROBABILITIES_ON_DEMAND;
 	public Parameter<Boolean> IS_TWO_STATE_RANDOM_WALK;
 	public Parameter<Double> TF_SPECIFIC_ENERGY_THRESHOLD; // FG
 
@@ -156,9 +163,13 @@ public class InputParameters  implements Serializable{
 		//SIMULATION PARAMETERS
 		this.STOP_TIME = new Parameter<Double>("", "", "", "", 0.0);
 		this.ENSEMBLE_SIZE = new Parameter<Integer>("", "", "", "", 0);
+		this.ENSEMBLE_THREADS = new Parameter<Integer>("", "", "", "", 1);
 		this.RANDOM_SEED = new Parameter<Integer>("", "", "", "", 0);
 		this.DNA_SECTOR_SIZE = new Parameter<Integer>("", "", "", "", 0);
 		this.EVENT_LIST_SUBGROUP_SIZE = new Parameter<Integer>("", "", "", "", 0);
+		this.EVENT_LIST_TYPE = new Parameter<String>("", "", "", "", Constants.EVENT_LIST_FIRST_REACTION);
+		this.RANDOM_VARIATES = new Parameter<String>("", "", "", "", Constants.RANDOM_VARIATES_ZIGGURAT);
+		this.RANDOM_GENERATOR = new Parameter<String>("", "", "", "", Constants.RANDOM_GENERATOR_XOSHIRO);
 		
 		//SIMULATION-OUTPUT PARAMETERS
 		this.OUTPUT_FOLDER = new Parameter<String>("", "", "", "", "");
@@ -206,7 +217,9 @@ public class InputParameters  implements Serializable{
 		
 		//DNA PARAMETERS
 		this.DNA_SEQUENCE_FILE= new Parameter<String>("", "", "", "", "");
+		this.DNA_SEQUENCE_REGION = new Parameter<String>("", "", "", "", "");
 		this.DNA_AVAILABILITY_FILE = new Parameter<String>("", "", "", "", ""); // FG: btrack file with 0 and 1 for covered and open bps
+		this.AFFINITY_CACHE_FOLDER = new Parameter<String>("", "", "", "", "");
 		this.DNA_DEREPRESSION_RATE = new Parameter<Double>("", "", "", "", 0.0); // FG: if repressor unbound, DNA will be opened at this rate
 
 		//DNA_RANDOM PARAMETERS
@@ -235,6 +248,7 @@ public class InputParameters  implements Serializable{
 		this.CHECK_OCCUPANCY_ON_SLIDING = new Parameter<Boolean>("", "", "", "", false);
 		this.CHECK_OCCUPANCY_ON_REBINDING = new Parameter<Boolean>("", "", "", "", false);
 		this.IS_BIASED_RANDOM_WALK = new Parameter<Boolean>("", "", "", "", false);
+		this.SLIDE_PROBABILITIES_ON_DEMAND = new Parameter<Boolean>("", "", "", "", false);
 		this.IS_TWO_STATE_RANDOM_WALK = new Parameter<Boolean>("", "", "", "", false);
 		this.TF_SPECIFIC_ENERGY_THRESHOLD = new Parameter<Double>("", "", "", "", 0.0);
 		this.TF_TAU = new Parameter<Double>("", "", "", "", 0.0);
@@ -381,12 +395,20 @@ public class InputParameters  implements Serializable{
 			out.write("STOP_TIME = "+this.STOP_TIME.value+";\n\n");
 			out.write("#"+this.ENSEMBLE_SIZE.description+"\n");
 			out.write("ENSEMBLE_SIZE = "+this.ENSEMBLE_SIZE.value+";\n\n");
+			out.write("#"+this.ENSEMBLE_THREADS.description+"\n");
+			out.write("ENSEMBLE_THREADS = "+this.ENSEMBLE_THREADS.value+";\n\n");
 			out.write("#"+this.RANDOM_SEED.description+"\n");
 			out.write("RANDOM_SEED = "+this.RANDOM_SEED.value+";\n\n");
 			out.write("#"+this.DNA_SECTOR_SIZE.description+"\n");
 			out.write("DNA_SECTOR_SIZE = "+this.DNA_SECTOR_SIZE.value+";\n\n");
 			out.write("#"+this.EVENT_LIST_SUBGROUP_SIZE.description+"\n");
 			out.write("EVENT_LIST_SUBGROUP_SIZE = "+this.EVENT_LIST_SUBGROUP_SIZE.value+";\n\n");
+			out.write("#"+this.EVENT_LIST_TYPE.description+"\n");
+			out.write("EVENT_LIST_TYPE = "+this.EVENT_LIST_TYPE.value+";\n\n");
+			out.write("#"+this.RANDOM_VARIATES.description+"\n");
+			out.write("RANDOM_VARIATES = "+this.RANDOM_VARIATES.value+";\n\n");
+			out.write("#"+this.RANDOM_GENERATOR.description+"\n");
+			out.write("RANDOM_GENERATOR = "+this.RANDOM_GENERATOR.value+";\n\n");
 
 			//SIMULATION-OUTPUT PARAMETERS
 			out.write("#"+this.OUTPUT_FOLDER.description+"\n");
@@ -475,8 +497,12 @@ public class InputParameters  implements Serializable{
 			out.write("\n#DNA PARAMETERS\n\n");
 			out.write("#"+this.DNA_SEQUENCE_FILE.description+"\n");
 			out.write("DNA_SEQUENCE_FILE = \""+this.DNA_SEQUENCE_FILE.value+"\";\n\n");
+			out.write("#"+this.DNA_SEQUENCE_REGION.description+"\n");
+			out.write("DNA_SEQUENCE_REGION = \""+this.DNA_SEQUENCE_REGION.value+"\";\n\n");
 			out.write("#"+this.DNA_AVAILABILITY_FILE.description+"\n");
 			out.write("DNA_AVAILABILITY_FILE = \""+this.DNA_AVAILABILITY_FILE.value+"\";\n\n");
+			out.write("#"+this.AFFINITY_CACHE_FOLDER.description+"\n");
+			out.write("AFFINITY_CACHE_FOLDER = \""+this.AFFINITY_CACHE_FOLDER.value+"\";\n\n");
 			out.write("#"+this.DNA_DEREPRESSION_RATE.description+"\n");
 			out.write("DNA_DEREPRESSION_RATE = "+this.DNA_DEREPRESSION_RATE.value+";\n\n");
 
@@ -531,6 +557,8 @@ public class InputParameters  implements Serializable{
 			out.write("CHECK_OCCUPANCY_ON_REBINDING = "+this.CHECK_OCCUPANCY_ON_REBINDING.value+";\n\n");
 			out.write("#"+this.IS_BIASED_RANDOM_WALK.description+"\n");
 			out.write("IS_BIASED_RANDOM_WALK = "+this.IS_BIASED_RANDOM_WALK.value+";\n\n");
+			out.write("#"+this.SLIDE_PROBABILITIES_ON_DEMAND.description+"\n");
+			out.write("SLIDE_PROBABILITIES_ON_DEMAND = "+this.SLIDE_PROBABILITIES_ON_DEMAND.value+";\n\n");
 			out.write("#"+this.IS_TWO_STATE_RANDOM_WALK.description+"\n");
 			out.write("IS_TWO_STATE_RANDOM_WALK = "+this.IS_TWO_STATE_RANDOM_WALK.value+";\n\n");
 			out.write("#"+this.TF_SPECIFIC_ENERGY_THRESHOLD.description+"\n");
@@ -616,6 +644,11 @@ public class InputParameters  implements Serializable{
 			if(!label.isEmpty()){this.ENSEMBLE_SIZE.label = label;}
 			if(!description.isEmpty()){this.ENSEMBLE_SIZE.description = description;}
 			if(!category.isEmpty()){this.ENSEMBLE_SIZE.category = category;}
+		} else if(name.equals("ENSEMBLE_THREADS")){
+			this.ENSEMBLE_THREADS.value =  Utils.parseInteger(value, Constants.NONE);
+			if(!label.isEmpty()){this.ENSEMBLE_THREADS.label = label;}
+			if(!description.isEmpty()){this.ENSEMBLE_THREADS.description = description;}
+			if(!category.isEmpty()){this.ENSEMBLE_THREADS.category = category;}
 		} else if(name.equals("RANDOM_SEED")){
 			this.RANDOM_SEED.value =  Utils.parseInteger(value, Constants.NONE);
 			if(!label.isEmpty()){this.RANDOM_SEED.label = label;}
@@ -631,6 +664,21 @@ public class InputParameters  implements Serializable{
 			if(!label.isEmpty()){this.EVENT_LIST_SUBGROUP_SIZE.label = label;}
 			if(!description.isEmpty()){this.EVENT_LIST_SUBGROUP_SIZE.description = description;}
 			if(!category.isEmpty()){this.EVENT_LIST_SUBGROUP_SIZE.category = category;}
+		} else if(name.equals("EVENT_LIST_TYPE")){
+			this.EVENT_LIST_TYPE.value = value;
+			if(!label.isEmpty()){this.EVENT_LIST_TYPE.label = label;}
+			if(!description.isEmpty()){this.EVENT_LIST_TYPE.description = description;}
+			if(!category.isEmpty()){this.EVENT_LIST_TYPE.category = category;}
+		} else if(name.equals("RANDOM_VARIATES")){
+			this.RANDOM_VARIATES.value = value;
+			if(!label.isEmpty()){this.RANDOM_VARIATES.label = label;}
+			if(!description.isEmpty()){this.RANDOM_VARIATES.description = description;}
+			if(!category.isEmpty()){this.RANDOM_VARIATES.category = category;}
+		} else if(name.equals("RANDOM_GENERATOR")){
+			this.RANDOM_GENERATOR.value = value;
+			if(!label.isEmpty()){this.RANDOM_GENERATOR.label = label;}
+			if(!description.isEmpty()){this.RANDOM_GENERATOR.description = description;}
+			if(!category.isEmpty()){this.RANDOM_GENERATOR.category = category;}
 		}
 		//SIMULATION-OUTPUT PARAMETERS
 		else if(name.equals("OUTPUT_FOLDER")){
@@ -826,11 +874,21 @@ public class InputParameters  implements Serializable{
 			if(!label.isEmpty()){this.DNA_SEQUENCE_FILE.label = label;}
 			if(!description.isEmpty()){this.DNA_SEQUENCE_FILE.description = description;}
 			if(!category.isEmpty()){this.DNA_SEQUENCE_FILE.category = category;}
+		} else if(name.equals("DNA_SEQUENCE_REGION")){
+			this.DNA_SEQUENCE_REGION.value = value;
+			if(!label.isEmpty()){this.DNA_SEQUENCE_REGION.label = label;}
+			if(!description.isEmpty()){this.DNA_SEQUENCE_REGION.description = description;}
+			if(!category.isEmpty()){this.DNA_SEQUENCE_REGION.category = category;}
 		} else if(name.equals("DNA_AVAILABILITY_FILE")){
 			this.DNA_AVAILABILITY_FILE.value = value;
 			if(!label.isEmpty()){this.DNA_AVAILABILITY_FILE.label = label;}
 			if(!description.isEmpty()){this.DNA_AVAILABILITY_FILE.description = description;}
 			if(!category.isEmpty()){this.DNA_AVAILABILITY_FILE.category = category;}
+		} else if(name.equals("AFFINITY_CACHE_FOLDER")){
+			this.AFFINITY_CACHE_FOLDER.value = value;
+			if(!label.isEmpty()){this.AFFINITY_CACHE_FOLDER.label = label;}
+			if(!description.isEmpty()){this.AFFINITY_CACHE_FOLDER.description = description;}
+			if(!category.isEmpty()){this.AFFINITY_CACHE_FOLDER.category = category;}
 		} else if(name.equals("DNA_DEREPRESSION_RATE")){
 			this.DNA_DEREPRESSION_RATE.value = Utils.parseDouble(value, Constants.NONE);
 			if(!label.isEmpty()){this.DNA_DEREPRESSION_RATE.label = label;}
@@ -955,6 +1013,11 @@ public class InputParameters  implements Serializable{
 			if(!label.isEmpty()){this.IS_BIASED_RANDOM_WALK.label = label;}
 			if(!description.isEmpty()){this.IS_BIASED_RANDOM_WALK.description = description;}
 			if(!category.isEmpty()){this.IS_BIASED_RANDOM_WALK.category = category;}
+		} else if(name.equals("SLIDE_PROBABILITIES_ON_DEMAND")){
+			this.SLIDE_PROBABILITIES_ON_DEMAND.value = Utils.parseBoolean(value, false);
+			if(!label.isEmpty()){this.SLIDE_PROBABILITIES_ON_DEMAND.label = label;}
+			if(!description.isEmpty()){this.SLIDE_PROBABILITIES_ON_DEMAND.description = description;}
+			if(!category.isEmpty()){this.SLIDE_PROBABILITIES_ON_DEMAND.category = category;}
 		} else if(name.equals("IS_TWO_STATE_RANDOM_WALK")){
 			this.IS_TWO_STATE_RANDOM_WALK.value = Utils.parseBoolean(value, false);
 			if(!label.isEmpty()){this.IS_TWO_STATE_RANDOM_WALK.label = label;}
@@ -114,14 +114,30 @@ public class PFM  implements Serializable{
 
     /**
      * FG
-     * returns the PWM-score of the nucleotide
+     * returns the PWM-score of the nucleotide; the ANY nucleotide (N) has the lowest score of the position
      * @param nucleotide current nucleotide
      * @param position in the motif
      */
     public double getScorePFM(byte nucleotide, int position){
+        if(nucleotide == CellUtils.bpANYID){
+            return getMinScorePFM(position);
+        }
         return normPFM.get(this.nucleotidePosition[nucleotide]).get(position);
     }
 
+    /**
+     * returns min PWM score for a position on the DNA (the score of N, which cannot strengthen a site)
+     */
+    public double getMinScorePFM(int position){
+        double min = Double.MAX_VALUE;
+        for (int value : this.nucleotidePosition) {
+            if (normPFM.get(value).get(position) < min) {
+                min = normPFM.get(value).get(position);
+            }
+        }
+        return min;
+    }
+
     /**
      * AD
      * returns max PWM score for a position on the DNA
@@ -3,6 +3,7 @@ package objects;
 import environment.Cell;
 import utils.CellUtils;
 import utils.Constants;
+import utils.PackedSequence;
 import utils.Utils;
 
 import java.io.*;
@@ -98,7 +99,7 @@ public class TFSpecies implements Serializable {
     /**
      * class constructor for the random tfs
      */
-    public TFSpecies(int id, byte[] DNAstrand, int pos, int dbdLength, int copyNumber, double es, int sizeLeft,
+    public TFSpecies(int id, PackedSequence DNAstrand, int pos, int dbdLength, int copyNumber, double es, int sizeLeft,
                      int sizeRight, double assocRate, DNAregion initialDrop, boolean isCognate,
                      double unBindingProbability, double slideLeftProbability, double slideRightProbability,
                      double jumpingProbability, double hopSTDdisplacement, double specificWaitingTime,
@@ -118,7 +119,7 @@ public class TFSpecies implements Serializable {
         dbd = new byte[dbdLength];
         maxAffinity = 0;
         for (int i = pos; i < pos + dbdLength && i < DNAstrand.length; i++) {
-            dbd[i - pos] = DNAstrand[i];
+            dbd[i - pos] = DNAstrand.get(i);
             if (dbd[i - pos] != CellUtils.bpANYID) {
                 maxAffinity += es;
             }
@@ -610,6 +611,42 @@ public class TFSpecies implements Serializable {
         return this.TFcoop.get(this.isCooperativeSite[position][direction]);
     }
 
+    /**
+     * clears the event counters and the sliding lengths
+     */
+    public void clearStatistics() {
+        this.countTFBindingEvents = 0;
+        this.countTFUnbindingEvents = 0;
+        this.countTFSlideLeftEvents = 0;
+        this.countTFSlideRightEvents = 0;
+        this.countTFHoppingEvents = 0;
+        this.countTFforcedJumpsEvents = 0;
+        this.countTFHopsOutside = 0;
+        this.countTFRepressionEvents = 0;
+        this.countTFDerepressionEvents = 0;
+        slidingLength.clear();
+        slidingEvents.clear();
+        observedSlidingLength.clear();
+    }
+
+    /**
+     * adds the event counters and the sliding lengths of the same species from another cell
+     */
+    public void addStatistics(TFSpecies other) {
+        this.countTFBindingEvents += other.countTFBindingEvents;
+        this.countTFUnbindingEvents += other.countTFUnbindingEvents;
+        this.countTFSlideLeftEvents += other.countTFSlideLeftEvents;
+        this.countTFSlideRightEvents += other.countTFSlideRightEvents;
+        this.countTFHoppingEvents += other.countTFHoppingEvents;
+        this.countTFforcedJumpsEvents += other.countTFforcedJumpsEvents;
+        this.countTFHopsOutside += other.countTFHopsOutside;
+        this.countTFRepressionEvents += other.countTFRepressionEvents;
+        this.countTFDerepressionEvents += other.countTFDerepressionEvents;
+        slidingLength.addAll(other.slidingLength);
+        slidingEvents.addAll(other.slidingEvents);
+        observedSlidingLength.addAll(other.observedSlidingLength);
+    }
+
     /**
      * prints the sliding lengths to a file
      */
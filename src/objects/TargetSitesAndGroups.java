@@ -143,6 +143,33 @@ public class TargetSitesAndGroups implements Serializable {
 
     }
 
+    /**
+     * clears the statistics of the groups
+     */
+    public void clearStatistics() {
+        for (TargetSitesGroup group : tsg) {
+            group.firstTimeReached = Constants.NONE;
+            group.timesReached = 0;
+            group.timeOccupied = 0;
+        }
+    }
+
+    /**
+     * adds the statistics of the groups of a copy of these target sites; a group was first reached at the earliest
+     * time it was reached in any of them
+     */
+    public void addStatistics(TargetSitesAndGroups other) {
+        for (int i = 0; i < tsg.size(); i++) {
+            TargetSitesGroup group = tsg.get(i), otherGroup = other.tsg.get(i);
+            if (otherGroup.firstTimeReached != Constants.NONE && (group.firstTimeReached == Constants.NONE
+                    || otherGroup.firstTimeReached < group.firstTimeReached)) {
+                group.firstTimeReached = otherGroup.firstTimeReached;
+            }
+            group.timesReached += otherGroup.timesReached;
+            group.timeOccupied += otherGroup.timeOccupied;
+        }
+    }
+
     /**
      * returns a string with the names of all target site groups
      */
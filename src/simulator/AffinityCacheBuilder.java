@@ -0,0 +1,49 @@
+package simulator;
+
+import environment.Cell;
+import objects.InputParameters;
+import utils.AffinityLandscapeCache;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+/**
+ * computes the affinity landscapes of a parameters file and stores them in its affinity landscape cache
+ * (AFFINITY_CACHE_FOLDER), so that the runs of a parameter sweep started afterwards only load them. The landscapes
+ * which are drawn at random are not cached.
+ *
+ * usage: AffinityCacheBuilder parameters.grp
+ */
+public class AffinityCacheBuilder {
+
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 1) {
+            System.err.println("usage: AffinityCacheBuilder parameters.grp");
+            System.exit(1);
+        }
+
+        InputParameters ip = new InputParameters(args[0]);
+        String folder = ip.AFFINITY_CACHE_FOLDER.value.trim();
+        if (folder.isEmpty()) {
+            System.err.println("AFFINITY_CACHE_FOLDER is not set in " + args[0]);
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        // loading the cell computes the landscapes, which are stored in the cache if they are not there yet
+        new Cell(args[0], null, true);
+
+        File[] files = new File(folder).listFiles();
+        int entries = 0;
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(AffinityLandscapeCache.FILE_EXTENSION)) {
+                    entries++;
+                }
+            }
+        }
+        System.out.println("affinity landscape cache " + folder + ": " + entries + " landscapes ("
+                + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+}
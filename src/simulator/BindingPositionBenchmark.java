@@ -0,0 +1,96 @@
+package simulator;
+
+import utils.Constants;
+import utils.FenwickTree;
+import utils.Gillespie;
+import utils.LongBitSet;
+
+import java.util.Random;
+
+/**
+ * compares the time needed to draw a binding position with the square root sectors scan and with the Fenwick tree of
+ * the sector sums over the availability bitset. Each draw is followed by a point update (a position changes its
+ * availability), as when a molecule binds or unbinds.
+ *
+ * usage: BindingPositionBenchmark [genome sizes...]
+ */
+public class BindingPositionBenchmark {
+
+    private static final int DRAWS = 200000;
+    private static final long SEED = 1;
+
+    public static void main(String[] args) {
+        long[] sizes = {10000L, 100000L, 1000000L, 10000000L, 100000000L};
+        if (args.length > 0) {
+            sizes = new long[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Long.parseLong(args[i]);
+            }
+        }
+
+        System.out.println("genome size, sqrt sectors (ns/draw), Fenwick tree (ns/draw)");
+        for (long size : sizes) {
+            int n = (int) size;
+            double sectors = run(n, (int) Math.floor(Math.sqrt(n)), false);
+            double fenwick = run(n, Constants.DNA_SECTOR_SIZE_AUTO, true);
+            System.out.println(n + ", " + String.format("%.1f", sectors) + ", " + String.format("%.1f", fenwick));
+        }
+    }
+
+    /**
+     * draws binding positions on a DNA where half of the positions are available
+     *
+     * @return the average time of a draw and update in nanoseconds
+     */
+    private static double run(int n, int sectorSize, boolean useFenwickTree) {
+        Random generator = new Random(SEED);
+        int sectorsCount = (int) Math.ceil((double) n / sectorSize);
+        boolean[] availability = new boolean[n];
+        LongBitSet availabilityBits = new LongBitSet(n);
+        int[] sectorSum = new int[sectorsCount];
+        int availableSum = 0;
+        for (int i = 0; i < n; i++) {
+            availability[i] = generator.nextBoolean();
+            if (availability[i]) {
+                availabilityBits.set(i);
+                sectorSum[i / sectorSize]++;
+                availableSum++;
+            }
+        }
+        FenwickTree sectorIndex = new FenwickTree(sectorSum);
+
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < DRAWS; i++) {
+            double value = generator.nextDouble() * availableSum;
+            int position = useFenwickTree
+                    ? Gillespie.getNextPositionToBind(value, availabilityBits, sectorIndex, sectorSize)
+                    : Gillespie.getNextPositionToBind(value, availability, sectorSum, sectorSize);
+            checksum += position;
+
+            // the drawn position becomes occupied and a random one is released
+            int released = generator.nextInt(n);
+            int[] changed = {position, released};
+            for (int pos : changed) {
+                int delta = availability[pos] ? -1 : 1;
+                availability[pos] = !availability[pos];
+                if (availability[pos]) {
+                    availabilityBits.set(pos);
+                } else {
+                    availabilityBits.clear(pos);
+                }
+                sectorSum[pos / sectorSize] += delta;
+                availableSum += delta;
+                if (useFenwickTree) {
+                    sectorIndex.add(pos / sectorSize, delta);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum < 0) {
+            System.out.println(checksum);
+        }
+        return (double) elapsed / DRAWS;
+    }
+
+}
@@ -0,0 +1,29 @@
+package simulator;
+
+import utils.FastaIndexReader;
+
+import java.io.IOException;
+
+/**
+ * writes the .fai index of fasta files (the same as samtools faidx), so that only the region set by
+ * DNA_SEQUENCE_REGION is read from them
+ *
+ * usage: FastaIndexBuilder sequence.fasta...
+ */
+public class FastaIndexBuilder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: FastaIndexBuilder sequence.fasta...");
+            System.exit(1);
+        }
+
+        for (String filename : args) {
+            long start = System.currentTimeMillis();
+            int records = FastaIndexReader.buildIndex(filename);
+            System.out.println(filename + FastaIndexReader.INDEX_EXTENSION + ": " + records + " sequences ("
+                    + (System.currentTimeMillis() - start) + " ms)");
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package simulator;
+
+import objects.PFM;
+import utils.CellUtils;
+import utils.PackedSequence;
+import utils.Utils;
+import utils.Xoshiro256StarStar;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * times the computation of the affinity landscapes (PWM on both strands and a random landscape) of a sequence repeated
+ * a number of times. The PWM landscapes are computed with the scanning kernel and, for comparison, position by position
+ * (CellUtils.computeTFAffinityLR/RL). The landscapes are computed in parallel on the common fork/join pool; run it a
+ * second time with -Djava.util.concurrent.ForkJoinPool.common.parallelism=1 to get the sequential time.
+ *
+ * usage: LandscapeBenchmark sequence.fasta "PWM: A=[...]; C=[...]; G=[...]; T=[...]" [repeats]
+ */
+public class LandscapeBenchmark {
+
+    private static final long SEED = 1;
+    private static final int REPETITIONS = 5; // the fastest repetition is reported, after the JIT compiled the loops
+    private static final int SIZE_LEFT = 0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: LandscapeBenchmark sequence.fasta \"PWM: ...\" [repeats]");
+            System.exit(1);
+        }
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        StringBuilder sequence = new StringBuilder();
+        ArrayList<String> lines = Utils.readLinesFromFile(args[0]);
+        for (String line : lines) {
+            if (!line.startsWith(">")) {
+                sequence.append(line.trim());
+            }
+        }
+        byte[] unit = CellUtils.getSeqIDs(sequence.toString());
+        byte[] strand = new byte[unit.length * repeats];
+        for (int i = 0; i < repeats; i++) {
+            System.arraycopy(unit, 0, strand, i * unit.length, unit.length);
+        }
+        PackedSequence packed = new PackedSequence(strand);
+        PFM pfm = new PFM(args[1], null);
+
+        System.out.println("genome size: " + strand.length + ", parallelism: "
+                + ForkJoinPool.getCommonPoolParallelism());
+        System.out.println("PWM landscapes, per position (ms): "
+                + String.format("%.1f", runPerPosition(strand, pfm)));
+        System.out.println("PWM landscapes, kernel (ms): " + String.format("%.1f", runKernel(packed, pfm)));
+        System.out.println("random landscapes (ms): " + String.format("%.1f", runRandom(packed)));
+    }
+
+    /**
+     * computes the PWM landscapes of both strands position by position
+     *
+     * @return the time of the fastest repetition in milliseconds
+     */
+    private static double runPerPosition(byte[] strand, PFM pfm) {
+        long best = Long.MAX_VALUE;
+        double[] affinitiesLR = new double[strand.length];
+        double[] affinitiesRL = new double[strand.length];
+        for (int r = 0; r < REPETITIONS; r++) {
+            long start = System.nanoTime();
+            for (int i = 0; i <= strand.length - pfm.motifSize; i++) {
+                affinitiesLR[i] = CellUtils.computeTFAffinityLR(strand, i, pfm, SIZE_LEFT, 1.0, false);
+                affinitiesRL[i] = CellUtils.computeTFAffinityRL(strand, i, pfm, SIZE_LEFT, 1.0, false);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    /**
+     * computes the PWM landscapes of both strands in one pass
+     *
+     * @return the time of the fastest repetition in milliseconds
+     */
+    private static double runKernel(PackedSequence strand, PFM pfm) {
+        long best = Long.MAX_VALUE;
+        double[] affinitiesLR = new double[strand.length];
+        double[] affinitiesRL = new double[strand.length];
+        for (int r = 0; r < REPETITIONS; r++) {
+            long start = System.nanoTime();
+            CellUtils.computeTFAffinities(strand, pfm, SIZE_LEFT, pfm.motifSize, 1.0, affinitiesLR, affinitiesRL);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    /**
+     * computes the random landscapes of both strands
+     *
+     * @return the time of the fastest repetition in milliseconds
+     */
+    private static double runRandom(PackedSequence strand) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < REPETITIONS; r++) {
+            Xoshiro256StarStar generator = Xoshiro256StarStar.forStream(SEED, r, false);
+            long start = System.nanoTime();
+            for (int direction = 0; direction < 2; direction++) {
+                CellUtils.computeTFAffinities(generator, strand, (PFM) null, SIZE_LEFT, 1, 1.0, direction, 1.0);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+}
@@ -0,0 +1,90 @@
+package simulator;
+
+import utils.RandomVariates;
+import utils.Xoshiro256StarStar;
+
+import java.util.Arrays;
+
+/**
+ * compares the ziggurat and the legacy exponential and normal variates, drawn from java.util.Random or from the
+ * xoshiro256** generator. For each method it prints the time per variate, the mean, the variance and the
+ * Kolmogorov-Smirnov distance to the exact distribution.
+ *
+ * usage: RandomVariatesBenchmark [number of samples]
+ */
+public class RandomVariatesBenchmark {
+
+    private static final long SEED = 1;
+    private static final int REPETITIONS = 5; // the fastest repetition is reported, after the JIT compiled the loop
+
+    public static void main(String[] args) {
+        int samples = 1000000;
+        if (args.length > 0) {
+            samples = Integer.parseInt(args[0]);
+        }
+
+        System.out.println("distribution, method, ns/variate, mean, variance, KS distance");
+        String[] methods = {"legacy", "ziggurat", "ziggurat+xoshiro256"};
+        for (String method : methods) {
+            report("exponential", method, run(samples, method, true), true);
+            report("normal", method, run(samples, method, false), false);
+        }
+    }
+
+    /**
+     * draws the samples; the last element holds the time per variate in nanoseconds of the fastest repetition
+     */
+    private static double[] run(int samples, String method, boolean isExponential) {
+        boolean isLegacy = method.equals("legacy");
+        RandomVariates generator = method.endsWith("xoshiro256")
+                ? Xoshiro256StarStar.forStream(SEED, 0, isLegacy) : new RandomVariates(SEED, isLegacy);
+        double[] result = new double[samples + 1];
+        long best = Long.MAX_VALUE;
+        for (int k = 0; k < REPETITIONS; k++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                result[i] = isExponential ? generator.nextExponential() : generator.nextGaussian();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        result[samples] = (double) best / samples;
+        return result;
+    }
+
+    private static void report(String distribution, String method, double[] result, boolean isExponential) {
+        int samples = result.length - 1;
+        double[] x = Arrays.copyOf(result, samples);
+        double mean = 0.0, variance = 0.0;
+        for (double v : x) {
+            mean += v;
+        }
+        mean /= samples;
+        for (double v : x) {
+            variance += (v - mean) * (v - mean);
+        }
+        variance /= samples - 1;
+
+        Arrays.sort(x);
+        double distance = 0.0;
+        for (int i = 0; i < samples; i++) {
+            double cdf = isExponential ? 1.0 - Math.exp(-x[i]) : normalCDF(x[i]);
+            distance = Math.max(distance, Math.max(Math.abs((double) (i + 1) / samples - cdf),
+                    Math.abs((double) i / samples - cdf)));
+        }
+        System.out.println(distribution + ", " + method + ", " + String.format("%.2f", result[samples]) + ", "
+                + String.format("%.5f", mean) + ", " + String.format("%.5f", variance) + ", "
+                + String.format("%.5f", distance));
+    }
+
+    /**
+     * cumulative distribution function of the standard normal distribution (Abramowitz and Stegun 7.1.26 for erf)
+     */
+    private static double normalCDF(double x) {
+        double z = Math.abs(x) / Math.sqrt(2.0);
+        double t = 1.0 / (1.0 + 0.3275911 * z);
+        double erf = 1.0 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027
+                + t * 1.061405429)))) * Math.exp(-z * z);
+        return x >= 0 ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+    }
+
+}
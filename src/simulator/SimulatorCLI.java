@@ -162,8 +162,13 @@ public class SimulatorCLI {
 
         String intermediaryFilename;
 
-        //run intervals
-        if (cell.totalStopTime > 0) {
+        //run the samples of the ensemble in parallel (there are no intermediary backups in this mode)
+        if (cell.totalStopTime > 0 && !backupRestarted && cell.ip.ENSEMBLE_SIZE.value > 1
+                && cell.ip.ENSEMBLE_THREADS.value != 1) {
+            elapsedTime = cell.runEnsembleInParallel(cell.ip.ENSEMBLE_THREADS.value);
+            System.out.println(cell.ip.ENSEMBLE_SIZE.value + " samples elapsed time: " + elapsedTime + "s");
+        } else if (cell.totalStopTime > 0) {
+            //run intervals
             while (i < ensembleSteps && (!stopAfterBackup || !wasSaved)) {
                 ensemble = cell.ensemble;
                 time += timeStep;
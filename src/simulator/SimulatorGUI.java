@@ -451,9 +451,13 @@ public class SimulatorGUI {
 		//SIMULATION PARAMETERS
 		ip.STOP_TIME.value= simulationParameters.STOP_TIME.getValue();
 		ip.ENSEMBLE_SIZE.value= simulationParameters.ENSEMBLE_SIZE.getValue();
+		ip.ENSEMBLE_THREADS.value= simulationParameters.ENSEMBLE_THREADS.getValue();
 		ip.RANDOM_SEED.value= simulationParameters.RANDOM_SEED.getValue();
 		ip.DNA_SECTOR_SIZE.value= simulationParameters.DNA_SECTOR_SIZE.getValue();
 		ip.EVENT_LIST_SUBGROUP_SIZE.value= simulationParameters.EVENT_LIST_SUBGROUP_SIZE.getValue();
+		ip.EVENT_LIST_TYPE.value= simulationParameters.EVENT_LIST_TYPE.getValue();
+		ip.RANDOM_VARIATES.value= simulationParameters.RANDOM_VARIATES.getValue();
+		ip.RANDOM_GENERATOR.value= simulationParameters.RANDOM_GENERATOR.getValue();
 
 		//SIMULATION-OUTPUT PARAMETERS
 		ip.OUTPUT_FOLDER.value= outputParameters.OUTPUT_FOLDER.getValue();
@@ -501,7 +505,9 @@ public class SimulatorGUI {
 
 		//DNA PARAMETERS
 		ip.DNA_SEQUENCE_FILE.value= DNAParameters.DNA_SEQUENCE_FILE.getValue();
+		ip.DNA_SEQUENCE_REGION.value= DNAParameters.DNA_SEQUENCE_REGION.getValue();
 		ip.DNA_AVAILABILITY_FILE.value= DNAParameters.DNA_AVAILABILITY_FILE.getValue();
+		ip.AFFINITY_CACHE_FOLDER.value= DNAParameters.AFFINITY_CACHE_FOLDER.getValue();
 		ip.DNA_DEREPRESSION_RATE.value= DNAParameters.DNA_DEREPRESSION_RATE.getValue();
 
 		//DNA_RANDOM PARAMETERS
@@ -531,6 +537,7 @@ public class SimulatorGUI {
 		ip.TF_STALLS_IF_BLOCKED.value= TFRandomWalkParameters.TF_STALLS_IF_BLOCKED.getValue();	
 		ip.TF_IS_IMMOBILE.value= TFRandomWalkParameters.TF_IS_IMMOBILE.getValue();	
 		ip.IS_BIASED_RANDOM_WALK.value= TFRandomWalkParameters.IS_BIASED_RANDOM_WALK.getValue();	
+		ip.SLIDE_PROBABILITIES_ON_DEMAND.value= TFRandomWalkParameters.SLIDE_PROBABILITIES_ON_DEMAND.getValue();
 		ip.IS_TWO_STATE_RANDOM_WALK.value= TFRandomWalkParameters.IS_TWO_STATE_RANDOM_WALK.getValue();	
 
 		ip.TF_SPECIFIC_ENERGY_THRESHOLD.value = TFRandomWalkParameters.TF_SPECIFIC_ENERGY_THRESHOLD.getValue();
@@ -545,9 +552,13 @@ public class SimulatorGUI {
 		//SIMULATION PARAMETERS
 		simulationParameters.STOP_TIME.setValue(ip.STOP_TIME.value);
 		simulationParameters.ENSEMBLE_SIZE.setValue(ip.ENSEMBLE_SIZE.value);
+		simulationParameters.ENSEMBLE_THREADS.setValue(ip.ENSEMBLE_THREADS.value);
 		simulationParameters.RANDOM_SEED.setValue(ip.RANDOM_SEED.value);
 		simulationParameters.DNA_SECTOR_SIZE.setValue(ip.DNA_SECTOR_SIZE.value);
 		simulationParameters.EVENT_LIST_SUBGROUP_SIZE.setValue(ip.EVENT_LIST_SUBGROUP_SIZE.value);
+		simulationParameters.EVENT_LIST_TYPE.setValue(ip.EVENT_LIST_TYPE.value);
+		simulationParameters.RANDOM_VARIATES.setValue(ip.RANDOM_VARIATES.value);
+		simulationParameters.RANDOM_GENERATOR.setValue(ip.RANDOM_GENERATOR.value);
 
 		//SIMULATION-OUTPUT PARAMETERS
 		outputParameters.OUTPUT_FOLDER.setValue(ip.OUTPUT_FOLDER.value);
@@ -594,7 +605,9 @@ public class SimulatorGUI {
 
 		//DNA PARAMETERS
 		DNAParameters.DNA_SEQUENCE_FILE.setValue(ip.DNA_SEQUENCE_FILE.value);
+		DNAParameters.DNA_SEQUENCE_REGION.setValue(ip.DNA_SEQUENCE_REGION.value);
 		DNAParameters.DNA_AVAILABILITY_FILE.setValue(ip.DNA_AVAILABILITY_FILE.value);
+		DNAParameters.AFFINITY_CACHE_FOLDER.setValue(ip.AFFINITY_CACHE_FOLDER.value);
 		DNAParameters.DNA_DEREPRESSION_RATE.setValue(ip.DNA_DEREPRESSION_RATE.value);
 		
 		//DNA_RANDOM PARAMETERS
@@ -628,6 +641,7 @@ public class SimulatorGUI {
 		TFRandomWalkParameters.TF_STALLS_IF_BLOCKED.setValue(ip.TF_STALLS_IF_BLOCKED.value);
 		TFRandomWalkParameters.TF_IS_IMMOBILE.setValue(ip.TF_IS_IMMOBILE.value);
 		TFRandomWalkParameters.IS_BIASED_RANDOM_WALK.setValue(ip.IS_BIASED_RANDOM_WALK.value);
+		TFRandomWalkParameters.SLIDE_PROBABILITIES_ON_DEMAND.setValue(ip.SLIDE_PROBABILITIES_ON_DEMAND.value);
 		TFRandomWalkParameters.IS_TWO_STATE_RANDOM_WALK.setValue(ip.IS_TWO_STATE_RANDOM_WALK.value);
 
 		TFRandomWalkParameters.TF_SPECIFIC_ENERGY_THRESHOLD.setValue(ip.TF_SPECIFIC_ENERGY_THRESHOLD.value);
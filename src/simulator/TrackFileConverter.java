@@ -0,0 +1,116 @@
+package simulator;
+
+import utils.BinaryTrackFile;
+import utils.Constants;
+import utils.LongBitSet;
+import utils.TextTrackReader;
+
+import java.io.IOException;
+
+/**
+ * converts a csv affinity landscape or a btrack dna accessibility file to the binary format of BinaryTrackFile, which
+ * can then be used in place of the text file. The columns are counted from 1, as in the TF file; a landscape without
+ * position column (0) has the positions from 0. The positions missing from the landscape are 0.
+ *
+ * usage: TrackFileConverter landscape input.csv output posCol colLR colRL [escapeLines]
+ * TrackFileConverter btrack input.btrack output
+ */
+public class TrackFileConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 6 && args[0].equals("landscape")) {
+            int escapeLines = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+            convertLandscape(args[1], args[2], Integer.parseInt(args[3]) - 1, Integer.parseInt(args[4]) - 1,
+                    Integer.parseInt(args[5]) - 1, escapeLines);
+        } else if (args.length >= 3 && args[0].equals("btrack")) {
+            convertAccessibility(args[1], args[2]);
+        } else {
+            System.err.println("usage: TrackFileConverter landscape input.csv output posCol colLR colRL [escapeLines]");
+            System.err.println("       TrackFileConverter btrack input.btrack output");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * converts a csv landscape; the first pass finds the range of the positions, the second one reads the affinities
+     */
+    private static void convertLandscape(String input, String output, int posCol, int colLR, int colRL,
+                                         int escapeLines) throws IOException {
+        long start = System.currentTimeMillis();
+        long firstPosition = Long.MAX_VALUE, lastPosition = Long.MIN_VALUE;
+        int maxCol = Math.max(Math.max(colLR, colRL), posCol);
+        try (TextTrackReader reader = openLandscape(input, escapeLines)) {
+            for (long row = 0; reader.nextLine(); row++) {
+                if (reader.isEmpty()) {
+                    row--;
+                    continue;
+                }
+                if (reader.getColumnsNo() <= maxCol) {
+                    throw new IOException("could not parse line " + reader.getLineNo() + ": " + reader.getLine());
+                }
+                long position = posCol < 0 ? row : Math.round(reader.getDouble(posCol, Constants.NONE));
+                firstPosition = Math.min(firstPosition, position);
+                lastPosition = Math.max(lastPosition, position);
+            }
+        }
+        if (firstPosition > lastPosition) {
+            firstPosition = 0;
+            lastPosition = -1;
+        } else if (lastPosition - firstPosition >= Integer.MAX_VALUE) {
+            throw new IOException("the positions of " + input + " span more than " + Integer.MAX_VALUE + " bp");
+        }
+
+        double[] affinitiesLR = new double[(int) (lastPosition - firstPosition + 1)];
+        double[] affinitiesRL = new double[affinitiesLR.length];
+        try (TextTrackReader reader = openLandscape(input, escapeLines)) {
+            for (long row = 0; reader.nextLine(); row++) {
+                if (reader.isEmpty()) {
+                    row--;
+                    continue;
+                }
+                long position = posCol < 0 ? row : Math.round(reader.getDouble(posCol, Constants.NONE));
+                affinitiesLR[(int) (position - firstPosition)] = reader.getDouble(colLR, Constants.NONE);
+                affinitiesRL[(int) (position - firstPosition)] = reader.getDouble(colRL, Constants.NONE);
+            }
+        }
+        BinaryTrackFile.writeLandscape(output, firstPosition, affinitiesLR, affinitiesRL);
+        System.out.println(output + ": positions " + firstPosition + ".." + (lastPosition + 1) + " ("
+                + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    /**
+     * opens a csv landscape after its header lines (the empty lines are skipped, as when the landscape is read)
+     */
+    private static TextTrackReader openLandscape(String input, int escapeLines) throws IOException {
+        TextTrackReader reader = new TextTrackReader(input, Constants.AFFINITY_CSV_FILE_DELIMITER.charAt(0));
+        for (int k = 0; k < escapeLines && reader.nextLine(); ) {
+            if (!reader.isEmpty()) {
+                k++;
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * converts a btrack file (1 for the open positions)
+     */
+    private static void convertAccessibility(String input, String output) throws IOException {
+        long start = System.currentTimeMillis();
+        LongBitSet isOpen = new LongBitSet(1 << 16);
+        int count = 0;
+        try (TextTrackReader reader = new TextTrackReader(input, Constants.AFFINITY_CSV_FILE_DELIMITER.charAt(0))) {
+            while (reader.nextLine()) {
+                if (count == isOpen.length()) {
+                    isOpen = new LongBitSet(isOpen, 2 * count);
+                }
+                if (reader.getLineByte() == 1) {
+                    isOpen.set(count);
+                }
+                count++;
+            }
+        }
+        BinaryTrackFile.writeAccessibility(output, isOpen, count);
+        System.out.println(output + ": " + count + " positions (" + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+}
@@ -0,0 +1,193 @@
+package utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * on-disk cache of affinity landscapes. Each landscape is stored in a binary file named after a hash of everything it
+ * is computed from (the sequence, the motif, the energies and sizes, the strand), so runs which share the genome and
+ * the motifs load it instead of computing it again. A loaded landscape is a view of the memory mapped file, not a copy
+ * on the heap, so the processes running on the same node read the same page cached copy. Each process still computes
+ * its own move rates from it, since they are changed during the simulation. The files are written to a temporary file
+ * which is then renamed, so a process never reads a partially written landscape.
+ */
+public class AffinityLandscapeCache {
+
+    private static final int MAGIC = 0x4752504c; // "GRPL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12; // magic, version, number of values
+    public static final String FILE_EXTENSION = ".landscape";
+
+    private final File folder;
+
+    /**
+     * class constructor. The folder is created if it does not exist
+     *
+     * @param folder the folder of the cache files
+     */
+    public AffinityLandscapeCache(String folder) {
+        this.folder = new File(folder);
+        if (!this.folder.isDirectory() && !this.folder.mkdirs()) {
+            System.err.println("could not create the affinity landscape cache folder " + folder);
+        }
+    }
+
+    /**
+     * returns a read only view of the mapped file of a key, or null if it is not cached or the file is not valid. The
+     * mapping stays valid after the file is closed, until the view is garbage collected
+     *
+     * @param key    the key of the landscape
+     * @param length the number of values
+     */
+    public DoubleBuffer load(String key, int length) {
+        File file = new File(folder, key + FILE_EXTENSION);
+        if (!file.isFile() || file.length() != HEADER_SIZE + 8L * length) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != length) {
+                return null;
+            }
+            return buffer.asDoubleBuffer();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * stores the landscape of a key
+     *
+     * @param key    the key of the landscape
+     * @param values the landscape
+     */
+    public void store(String key, double[] values) throws IOException {
+        Path target = new File(folder, key + FILE_EXTENSION).toPath();
+        Path tmp = Files.createTempFile(folder.toPath(), key, ".tmp");
+        // the cache is shared with the other processes (the temporary files are only readable by their owner)
+        tmp.toFile().setReadable(true, false);
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * values.length);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(values.length);
+                buffer.asDoubleBuffer().put(values);
+                buffer.rewind();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * hash of the inputs of a landscape; the hex string of the digest is the key of the cache
+     */
+    public static class Key {
+        private final MessageDigest digest;
+
+        public Key(String source) {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            add(VERSION);
+            add(source);
+        }
+
+        public Key add(int value) {
+            digest.update(ByteBuffer.allocate(4).putInt(value).array());
+            return this;
+        }
+
+        public Key add(long value) {
+            digest.update(ByteBuffer.allocate(8).putLong(value).array());
+            return this;
+        }
+
+        public Key add(double value) {
+            digest.update(ByteBuffer.allocate(8).putDouble(value).array());
+            return this;
+        }
+
+        /**
+         * adds an array and its length, so that consecutive arrays can not be confused
+         */
+        public Key add(byte[] values) {
+            add(values.length);
+            digest.update(values);
+            return this;
+        }
+
+        /**
+         * adds the nucleotide IDs of a sequence and its length (the same as adding its byte array)
+         */
+        public Key add(PackedSequence values) {
+            add(values.length);
+            for (int start = 0; start < values.length; start += 1 << 16) {
+                digest.update(values.toBytes(start, Math.min(values.length, start + (1 << 16))));
+            }
+            return this;
+        }
+
+        public Key add(String value) {
+            return add(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * adds the content of a file
+         */
+        public Key addFile(String filename) throws IOException {
+            add(new File(filename).length());
+            try (InputStream in = new FileInputStream(filename)) {
+                byte[] buffer = new byte[1 << 16];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * returns the hash of the added values (for example the hash of the strand, which is then added to the key of
+         * each landscape). The key can not be used afterwards
+         */
+        public byte[] digest() {
+            return digest.digest();
+        }
+
+        /**
+         * returns the key: the hex string of the hash. The key can not be used afterwards
+         */
+        @Override
+        public String toString() {
+            StringBuilder str = new StringBuilder();
+            for (byte b : digest.digest()) {
+                str.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return str.toString();
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package utils;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * binary affinity landscape and dna accessibility files, which are read through a memory map with bulk copies instead
+ * of being parsed. They are recognised by their first bytes, so they can be used wherever the text files are.
+ * <p>
+ * landscape: magic, version, absolute position of the first value, number of values, the affinities 5'3' and then the
+ * affinities 3'5' (doubles); the missing positions of the text file are 0, as when the text file is read.
+ * <p>
+ * accessibility: magic, version, number of positions, bits (1 if the position is open) packed in longs.
+ */
+public class BinaryTrackFile {
+
+    private static final int LANDSCAPE_MAGIC = 0x89474c53; // "\x89GLS"
+    private static final int ACCESSIBILITY_MAGIC = 0x89474143; // "\x89GAC"
+    private static final int VERSION = 1;
+    private static final int LANDSCAPE_HEADER_SIZE = 20; // magic, version, first position, number of values
+    private static final int ACCESSIBILITY_HEADER_SIZE = 12; // magic, version, number of positions
+    private static final int CHUNK_SIZE = 1 << 20; // the number of values mapped or written at once
+
+    /**
+     * returns true if the file is a binary landscape file
+     */
+    public static boolean isLandscape(String filename) {
+        return hasMagic(filename, LANDSCAPE_MAGIC);
+    }
+
+    /**
+     * returns true if the file is a binary accessibility file
+     */
+    public static boolean isAccessibility(String filename) {
+        return hasMagic(filename, ACCESSIBILITY_MAGIC);
+    }
+
+    private static boolean hasMagic(String filename, int magic) {
+        File file = new File(filename);
+        if (!file.isFile() || file.length() < 4) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == magic;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * reads the values of a binary landscape file which are in a range of positions
+     *
+     * @param filename      the binary landscape file
+     * @param firstPosition the absolute position of the first element of the arrays
+     * @param affinitiesLR  the affinities 5'3' of the positions (the positions which are not in the file are left as
+     *                      they are)
+     * @param affinitiesRL  the affinities 3'5' of the positions
+     * @return the number of values in the file
+     */
+    public static int readLandscape(String filename, long firstPosition, double[] affinitiesLR,
+                                    double[] affinitiesRL) throws IOException {
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, LANDSCAPE_HEADER_SIZE);
+            if (header.getInt() != LANDSCAPE_MAGIC || header.getInt() != VERSION) {
+                throw new IOException(filename + " is not a binary landscape file of version " + VERSION);
+            }
+            long fileFirstPosition = header.getLong();
+            int count = header.getInt();
+            if (channel.size() != LANDSCAPE_HEADER_SIZE + 16L * count) {
+                throw new IOException("the binary landscape file " + filename + " is truncated");
+            }
+
+            // the overlap of the positions of the file and of the arrays
+            long start = Math.max(firstPosition, fileFirstPosition);
+            long end = Math.min(firstPosition + affinitiesLR.length, fileFirstPosition + count);
+            long offset = LANDSCAPE_HEADER_SIZE + 8 * (start - fileFirstPosition);
+            for (long position = start; position < end; position += CHUNK_SIZE) {
+                int size = (int) Math.min(CHUNK_SIZE, end - position);
+                int index = (int) (position - firstPosition);
+                map(channel, offset, 8L * size).asDoubleBuffer().get(affinitiesLR, index, size);
+                map(channel, offset + 8L * count, 8L * size).asDoubleBuffer().get(affinitiesRL, index, size);
+                offset += 8L * size;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * writes a binary landscape file
+     *
+     * @param firstPosition the absolute position of the first value
+     */
+    public static void writeLandscape(String filename, long firstPosition, double[] affinitiesLR,
+                                      double[] affinitiesRL) throws IOException {
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int count = affinitiesLR.length;
+            ByteBuffer header = ByteBuffer.allocate(LANDSCAPE_HEADER_SIZE);
+            header.putInt(LANDSCAPE_MAGIC).putInt(VERSION).putLong(firstPosition).putInt(count);
+            write(channel, header);
+            ByteBuffer buffer = ByteBuffer.allocate(8 * Math.min(CHUNK_SIZE, Math.max(1, count)));
+            for (double[] values : new double[][]{affinitiesLR, affinitiesRL}) {
+                for (int start = 0; start < count; start += CHUNK_SIZE) {
+                    int size = Math.min(CHUNK_SIZE, count - start);
+                    buffer.clear();
+                    buffer.asDoubleBuffer().put(values, start, size);
+                    buffer.limit(8 * size);
+                    write(channel, buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * reads a binary accessibility file
+     *
+     * @param filename the binary accessibility file
+     * @param closed   the closeness of the positions, which is set if the file has the same number of positions
+     * @return the number of positions in the file
+     */
+    public static int readAccessibility(String filename, byte[] closed) throws IOException {
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, ACCESSIBILITY_HEADER_SIZE);
+            if (header.getInt() != ACCESSIBILITY_MAGIC || header.getInt() != VERSION) {
+                throw new IOException(filename + " is not a binary accessibility file of version " + VERSION);
+            }
+            int count = header.getInt();
+            long words = (count + 63L) / 64;
+            if (channel.size() != ACCESSIBILITY_HEADER_SIZE + 8 * words) {
+                throw new IOException("the binary accessibility file " + filename + " is truncated");
+            }
+            if (count == closed.length) {
+                ByteBuffer bits = map(channel, ACCESSIBILITY_HEADER_SIZE, 8 * words);
+                for (int w = 0; w < words; w++) {
+                    long word = bits.getLong();
+                    for (int i = w * 64, end = Math.min(count, i + 64); i < end; i++, word >>>= 1) {
+                        closed[i] = (word & 1) != 0 ? Constants.BP_IS_OPEN : Constants.BP_IS_CLOSED;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * writes a binary accessibility file
+     *
+     * @param isOpen the positions which are open
+     * @param count  the number of positions
+     */
+    public static void writeAccessibility(String filename, LongBitSet isOpen, int count) throws IOException {
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long words = (count + 63L) / 64;
+            ByteBuffer buffer = ByteBuffer.allocate((int) (ACCESSIBILITY_HEADER_SIZE + 8 * words));
+            buffer.putInt(ACCESSIBILITY_MAGIC).putInt(VERSION).putInt(count);
+            for (int w = 0; w < words; w++) {
+                long word = 0;
+                for (int i = w * 64, end = Math.min(count, i + 64); i < end; i++) {
+                    if (isOpen.get(i)) {
+                        word |= 1L << (i - w * 64);
+                    }
+                }
+                buffer.putLong(word);
+            }
+            buffer.flip();
+            write(channel, buffer);
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+}
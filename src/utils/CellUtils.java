@@ -75,26 +75,27 @@ public class CellUtils {
      * @param es        the specific energy
      * @return the affinity vector
      */
-    public static double[] computeTFAffinities(Random generator, byte[] strand, byte[] TFseq, int sizeLeft,
-                                               int sizeTotal, double es, int direction, double roughness) {
-        double[] affinities = new double[strand.length];
+    public static double[] computeTFAffinities(Random generator, final PackedSequence strand, final byte[] TFseq,
+                                               final int sizeLeft, int sizeTotal, final double es,
+                                               final int direction, double roughness) {
+        final double[] affinities = new double[strand.length];
         sizeTotal--;
 
         if (TFseq != null && TFseq.length > 0) {
-            if (direction == 0) {
-                for (int i = 0; i < strand.length - sizeTotal; i++) {
-                    affinities[i] = computeTFAffinityLR(strand, i, TFseq, sizeLeft, es);
-                }
-            }
-            if (direction == 1) {
-                for (int i = 0; i < strand.length - sizeTotal; i++) {
-                    affinities[i] = computeTFAffinityRL(strand, i, TFseq, sizeLeft, es);
-                }
+            if (direction == 0 || direction == 1) {
+                ParallelChunks.forEach(Math.max(0, strand.length - sizeTotal), new ParallelChunks.Body() {
+                    public void run(int chunk, int start, int end) {
+                        byte[] window = getWindow(strand, start, end, sizeLeft + TFseq.length);
+                        for (int i = start; i < end; i++) {
+                            affinities[i] = direction == 0
+                                    ? computeTFAffinityLR(window, i - start, TFseq, sizeLeft, es)
+                                    : computeTFAffinityRL(window, i - start, TFseq, sizeLeft, es);
+                        }
+                    }
+                });
             }
         } else {
-            for (int i = 0; i < strand.length - sizeTotal; i++) {
-                affinities[i] = Utils.generateNextNormalDistributedDouble(generator, es, roughness, 0);
-            }
+            generateRandomAffinities(generator, affinities, strand.length - sizeTotal, es, roughness);
         }
 
         for (int i = strand.length - sizeTotal; i < strand.length; i++) {
@@ -105,6 +106,53 @@ public class CellUtils {
     }
 
 
+    /**
+     * returns the nucleotides read by the affinity computations of the positions [start, end): from start to the end of
+     * the last motif
+     *
+     * @param strand the DNA strand
+     * @param start  the first position
+     * @param end    the position after the last one
+     * @param reach  the number of nucleotides read from a position (the size on the left and of the motif)
+     */
+    private static byte[] getWindow(PackedSequence strand, int start, int end, int reach) {
+        return strand.toBytes(start, Math.min(strand.length, end - 1 + reach));
+    }
+
+
+    /**
+     * draws the affinities of a random landscape (normally distributed around the specific energy). With the
+     * Xoshiro256** generator the positions are drawn in parallel, each chunk from its own stream of a seed drawn from
+     * the generator, so the landscape does not depend on the number of threads; the legacy generator draws them in
+     * order.
+     *
+     * @param generator the random number generator
+     * @param affinities the affinity vector
+     * @param length    the number of positions to draw
+     * @param es        the specific energy
+     * @param roughness the affinity landscape roughness
+     */
+    private static void generateRandomAffinities(Random generator, final double[] affinities, int length,
+                                                 final double es, final double roughness) {
+        if (generator instanceof Xoshiro256StarStar) {
+            final long seed = generator.nextLong();
+            final boolean isLegacy = ((Xoshiro256StarStar) generator).isLegacy();
+            ParallelChunks.forEach(Math.max(0, length), new ParallelChunks.Body() {
+                public void run(int chunk, int start, int end) {
+                    Random stream = Xoshiro256StarStar.forStream(seed, chunk, isLegacy);
+                    for (int i = start; i < end; i++) {
+                        affinities[i] = Utils.generateNextNormalDistributedDouble(stream, es, roughness, 0);
+                    }
+                }
+            });
+        } else {
+            for (int i = 0; i < length; i++) {
+                affinities[i] = Utils.generateNextNormalDistributedDouble(generator, es, roughness, 0);
+            }
+        }
+    }
+
+
     /**
      * computes the affinity between a TF and the DNA at a specific position using the Gerland 2002 two ways from 5'
      * to 3' and from 3' to 5'
@@ -255,62 +303,145 @@ public class CellUtils {
      * @param roughness the affinity landscape roughness
      * @return the affinity vector
      */
-    public static double[] computeTFAffinities(Random generator, byte[] strand, PFM pfm, int sizeLeft, int sizeTotal,
-                                               double es, int direction, double roughness) {
+    public static double[] computeTFAffinities(Random generator, PackedSequence strand, PFM pfm, int sizeLeft,
+                                               int sizeTotal, double es, int direction, double roughness) {
         double[] affinities = new double[strand.length];
-        sizeTotal--;
 
         if (pfm != null && pfm.isCorrect && pfm.motifSize > 0) {
-            if (direction == 0) {
-                for (int i = 0; i < strand.length - sizeTotal; i++) {
-                    affinities[i] = computeTFAffinityLR(strand, i, pfm, sizeLeft, es, false);
-                }
-            }
-            if (direction == 1) {
-                for (int i = 0; i < strand.length - sizeTotal; i++) {
-                    affinities[i] = computeTFAffinityRL(strand, i, pfm, sizeLeft, es, false);
-                }
+            if (direction == 0 || direction == 1) {
+                computeTFAffinities(strand, pfm, sizeLeft, sizeTotal, es, direction == 0 ? affinities : null,
+                        direction == 1 ? affinities : null);
             }
         } else {
-            for (int i = 0; i < strand.length - sizeTotal; i++) {
-                affinities[i] = Utils.generateNextNormalDistributedDouble(generator, es, roughness, 0);
+            sizeTotal--;
+            generateRandomAffinities(generator, affinities, strand.length - sizeTotal, es, roughness);
+            for (int i = strand.length - sizeTotal; i < strand.length; i++) {
+                affinities[i] = Constants.NONE;
             }
         }
 
-        for (int i = strand.length - sizeTotal; i < strand.length; i++) {
-            affinities[i] = Constants.NONE;
+        return affinities;
+    }
+
+
+    /**
+     * computes the PWM (PFM) affinities between a TF and DNA on both strands in one pass. The scores are multiplied by
+     * the specific energy once, in a flat table indexed by motif position and nucleotide, N included (one table per
+     * strand, the reverse strand one holding the score of the complement), and the maximal score is computed once, so
+     * the scan does not allocate nor unbox anything. The result is the same as computeTFAffinityLR/RL at each position.
+     *
+     * @param strand       the DNA strand
+     * @param pfm          a correct PFM (PWM)
+     * @param sizeLeft     The size on the left of the DBD that the TF occupies on the DNA.
+     * @param sizeTotal    The total number of bp  that the TF occupies on the DNA.
+     * @param es           the specific energy
+     * @param affinitiesLR the affinity vector of the 5'->3' strand (length of the strand) or null if not needed
+     * @param affinitiesRL the affinity vector of the 3'->5' strand (length of the strand) or null if not needed
+     */
+    public static void computeTFAffinities(final PackedSequence strand, PFM pfm, final int sizeLeft, int sizeTotal,
+                                           double es, final double[] affinitiesLR, final double[] affinitiesRL) {
+        final int motifSize = pfm.motifSize;
+        final int bpNo = bps.numberOfBP + 1; // the nucleotides and N
+        final double[] scoresLR = new double[motifSize * bpNo];
+        final double[] scoresRL = new double[motifSize * bpNo];
+        double buffer = 0;
+        for (int i = 0; i < motifSize; i++) {
+            for (byte bp = 0; bp < bpNo; bp++) {
+                scoresLR[i * bpNo + bp] = es * pfm.getScorePFM(bp, i);
+                scoresRL[i * bpNo + bp] = es * pfm.getScorePFM(bps.getComplement(bp), i);
+            }
+            buffer += es * pfm.getMaxScorePFM(i);
         }
+        final double sumMax = buffer;
+        int positions = Math.max(0, strand.length - sizeTotal + 1);
+
+        ParallelChunks.forEach(positions, new ParallelChunks.Body() {
+            public void run(int chunk, int start, int end) {
+                byte[] window = getWindow(strand, start, end, sizeLeft + motifSize);
+                if (affinitiesRL == null) {
+                    for (int j = start; j < end; j++) {
+                        int first = j - start + sizeLeft;
+                        double sumLR = 0;
+                        for (int i = 0; i < motifSize; i++) {
+                            sumLR += scoresLR[i * bpNo + window[first + i]];
+                        }
+                        affinitiesLR[j] = sumLR - sumMax;
+                    }
+                } else if (affinitiesLR == null) {
+                    for (int j = start; j < end; j++) {
+                        int last = j - start + sizeLeft + motifSize - 1;
+                        double sumRL = 0;
+                        for (int i = 0; i < motifSize; i++) {
+                            sumRL += scoresRL[i * bpNo + window[last - i]];
+                        }
+                        affinitiesRL[j] = sumRL - sumMax;
+                    }
+                } else {
+                    for (int j = start; j < end; j++) {
+                        int first = j - start + sizeLeft, last = first + motifSize - 1;
+                        double sumLR = 0, sumRL = 0;
+                        for (int i = 0; i < motifSize; i++) {
+                            sumLR += scoresLR[i * bpNo + window[first + i]];
+                            sumRL += scoresRL[i * bpNo + window[last - i]];
+                        }
+                        affinitiesLR[j] = sumLR - sumMax;
+                        affinitiesRL[j] = sumRL - sumMax;
+                    }
+                }
+            }
+        });
 
-        return affinities;
+        for (int j = positions; j < strand.length; j++) {
+            if (affinitiesLR != null) {
+                affinitiesLR[j] = Constants.NONE;
+            }
+            if (affinitiesRL != null) {
+                affinitiesRL[j] = Constants.NONE;
+            }
+        }
     }
 
 
     /**
-     * computes the affinities between a TF and DNA from user-specified affinities
+     * computes the affinities between a TF and DNA from user-specified affinities. The sequences of up to
+     * KmerAffinities.MAX_K bp are looked up as 2 bit encoded k-mers, the longer ones as DNAsequence keys.
      *
      * @param strand    the DNA strand
      * @param sizeLeft  The size on the left of the DBD that the TF occupies on the DNA.
      * @param sizeTotal The total number of bp  that the TF occupies on the DNA.
      * @return the affinity vector
      */
-    public static double[] computeTFAffinities(byte[] strand, HashMap<DNAsequence, Double> seqsAffinities,
-                                               double defaultAffinity, int sizeLeft, int sizeMotif, int sizeTotal,
-                                               int direction) {
-        double[] affinities = new double[strand.length];
+    public static double[] computeTFAffinities(final PackedSequence strand,
+                                               final HashMap<DNAsequence, Double> seqsAffinities,
+                                               final double defaultAffinity, final int sizeLeft, final int sizeMotif,
+                                               int sizeTotal, final int direction) {
+        final double[] affinities = new double[strand.length];
         sizeTotal--;
 
-        if (seqsAffinities != null && seqsAffinities.size() > 0) {
-            if (direction == 0) {
-                for (int i = 0; i < strand.length - sizeTotal; i++) {
-                    affinities[i] = computeTFAffinityLR(strand, i, seqsAffinities, sizeLeft, sizeMotif,
-                            defaultAffinity);
-                }
+        boolean isEncoded = sizeMotif > 0 && sizeMotif <= KmerAffinities.MAX_K;
+        if (seqsAffinities != null && seqsAffinities.size() > 0 && isEncoded) {
+            if (direction == 0 || direction == 1) {
+                final KmerAffinities kmerAffinities = new KmerAffinities(seqsAffinities, sizeMotif, defaultAffinity);
+                ParallelChunks.forEach(Math.max(0, strand.length - sizeTotal), new ParallelChunks.Body() {
+                    public void run(int chunk, int start, int end) {
+                        computeTFAffinities(strand, kmerAffinities, sizeLeft, direction, affinities, start, end);
+                    }
+                });
             }
-            if (direction == 1) {
-                for (int i = 0; i < strand.length - sizeTotal; i++) {
-                    affinities[i] = computeTFAffinityRL(strand, i, seqsAffinities, sizeLeft, sizeMotif,
-                            defaultAffinity);
-                }
+        } else if (seqsAffinities != null && seqsAffinities.size() > 0) {
+            if (direction == 0 || direction == 1) {
+                ParallelChunks.forEach(Math.max(0, strand.length - sizeTotal), new ParallelChunks.Body() {
+                    public void run(int chunk, int start, int end) {
+                        byte[] window = getWindow(strand, start, end, sizeLeft + sizeMotif);
+                        for (int i = start; i < end; i++) {
+                            affinities[i] = direction == 0
+                                    ? computeTFAffinityLR(window, i - start, seqsAffinities, sizeLeft, sizeMotif,
+                                    defaultAffinity)
+                                    : computeTFAffinityRL(window, i - start, seqsAffinities, sizeLeft, sizeMotif,
+                                    defaultAffinity);
+                        }
+                    }
+                });
             }
         } else {
             for (int i = 0; i < strand.length - sizeTotal; i++) {
@@ -325,6 +456,56 @@ public class CellUtils {
         return affinities;
     }
 
+    /**
+     * computes the affinities of the positions [start, end) from user-specified affinities. The k-mer of each position
+     * is updated from the one of the previous position (the 5'->3' k-mer by a shift to the left, the reversed one of
+     * the 3'->5' strand by a shift to the right), so each position costs a table lookup.
+     *
+     * @param strand         the DNA strand
+     * @param kmerAffinities the affinities of the k-mers
+     * @param sizeLeft       The size on the left of the DBD that the TF occupies on the DNA.
+     * @param direction      the direction (5'->3' or 3'->5')
+     * @param affinities     the affinity vector
+     */
+    private static void computeTFAffinities(PackedSequence strand, KmerAffinities kmerAffinities, int sizeLeft,
+                                            int direction, double[] affinities, int start, int end) {
+        int k = kmerAffinities.k;
+        long mask = k == KmerAffinities.MAX_K ? -1L : (1L << (2 * k)) - 1;
+        int shiftRL = 2 * (k - 1);
+        long kmerLR = 0, kmerRL = 0;
+        int lastAny = Integer.MIN_VALUE; // the last N read
+
+        // the first k - 1 nucleotides of the first position
+        for (int j = start + sizeLeft; j < start + sizeLeft + k - 1; j++) {
+            byte bp = strand.get(j);
+            long code = bp == bpANYID ? 0 : bp;
+            lastAny = bp == bpANYID ? j : lastAny;
+            kmerLR = ((kmerLR << 2) | code) & mask;
+            kmerRL = (kmerRL >>> 2) | (code << shiftRL);
+        }
+        for (int i = start; i < end; i++) {
+            int j = i + sizeLeft + k - 1;
+            byte bp = strand.get(j);
+            long code = bp == bpANYID ? 0 : bp;
+            lastAny = bp == bpANYID ? j : lastAny;
+            kmerLR = ((kmerLR << 2) | code) & mask;
+            kmerRL = (kmerRL >>> 2) | (code << shiftRL);
+
+            if (lastAny < i + sizeLeft) {
+                affinities[i] = kmerAffinities.get(direction == 0 ? kmerLR : kmerRL);
+            } else {
+                // the sequence (reversed for the 3'->5' strand) with its N
+                byte[] seq = strand.toBytes(i + sizeLeft, i + sizeLeft + k);
+                for (int a = 0, b = k - 1; direction == 1 && a < b; a++, b--) {
+                    byte buffer = seq[a];
+                    seq[a] = seq[b];
+                    seq[b] = buffer;
+                }
+                affinities[i] = kmerAffinities.get(seq);
+            }
+        }
+    }
+
     /**
      * computes the PWM (PFM) affinity between a TF and the DNA at a specific position for the 5'->3' strand
      *
@@ -520,7 +701,7 @@ public class CellUtils {
      * @param description the description
      * @param seq         the DNA sequence
      */
-    public static void printSequence(String path, String filename, String description, byte[] seq) {
+    public static void printSequence(String path, String filename, String description, PackedSequence seq) {
         try {
             BufferedWriter out = new BufferedWriter(new FileWriter(new File(path, filename)));
             out.write(">");
@@ -532,7 +713,7 @@ public class CellUtils {
             for (int i = 0; i < sectors; i++) {
                 buffer = new StringBuilder();
                 for (int j = i * sectorSize; j < Math.min((i + 1) * sectorSize, seq.length); j++) {
-                    buffer.append(CellUtils.bps.bps[seq[j]]);
+                    buffer.append(CellUtils.bps.bps[seq.get(j)]);
                 }
                 out.write(buffer.toString());
                 out.newLine();
@@ -19,6 +19,9 @@ public class Constants {
 	public static final int MAX_STRAND_LEN_TO_PRINT_STRAND_STATE_ARRAYS = 50;
 	public static final int UPDATE_REPRESSION_SCORES_EVERY = 100;
 	
+	// size of the DNA sectors when it is autoselected (the sectors are searched through a Fenwick tree)
+	public static final int DNA_SECTOR_SIZE_AUTO = 64;
+	
 	// default parameters file
 	public static final String DEFAULT_PARAMS_FILE = "system.ini";
 	public static final String DEFAULT_PARAMS_FILE_WIN = "system_win.ini";
@@ -108,6 +111,21 @@ public class Constants {
 	public static final int NEXT_EVENT_IS_NON_COGNATE_TF_BINDING = 3;
 	public static final int NEXT_EVENT_IS_NON_COGNATE_TF_RANDOM_WALK = 4;	
 	
+	//event list types
+	public static final String EVENT_LIST_FIRST_REACTION = "firstReaction";
+	public static final String EVENT_LIST_INDEXED_HEAP = "indexedHeap";
+	public static final String EVENT_LIST_NEXT_REACTION = "nextReaction";
+	public static final String EVENT_LIST_UNIFIED = "unified";
+	public static final String EVENT_LIST_COMPOSITION_REJECTION = "compositionRejection";
+	
+	//random variates
+	public static final String RANDOM_VARIATES_LEGACY = "legacy";
+	public static final String RANDOM_VARIATES_ZIGGURAT = "ziggurat";
+	
+	//random number generators
+	public static final String RANDOM_GENERATOR_LEGACY = "legacy";
+	public static final String RANDOM_GENERATOR_XOSHIRO = "xoshiro256";
+	
 	
 	public static final String DNA_FASTA_SUBSEQUENCE = "subsequence";
 	public static final String DNA_FASTA_COPY_NUMBER = "copy";
@@ -1,13 +1,15 @@
 package utils;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 import environment.Cell;
 import objects.DNA;
+import objects.DNAregion;
 
 /**
  * fasta file parser
@@ -15,67 +17,237 @@ import objects.DNA;
  *
  */
 public class DNAFilesParser {
+	private static final long FASTA_MAP_SIZE = 1L << 28; // the file is mapped in segments of this size
+	static final byte[] NUCLEOTIDE_IDS = buildNucleotideIDs(); // the ID of each letter, NONE if it is not a position
+
+	/**
+	 * reads the sequence of a region of a sequence file. A .2bit file, or a fasta file with a .fai index next to it,
+	 * is read at random access, so only the simulated part of the record (the subsequence of its description) is
+	 * read. Other fasta files are scanned from the start and only the record of the region is kept.
+	 * @param filename the .2bit or fasta file
+	 * @param region the region which is simulated (e.g. chr2R:1000..5000, in the coordinates of the description of
+	 *                  the record), or empty for the whole file
+	 */
+	public static DNA sequenceFileParser(String filename, String region){
+		region = region == null ? "" : region.trim();
+		String subsequence = region.isEmpty() ? "" : Constants.DNA_FASTA_DELIMITER + Constants.DNA_FASTA_SUBSEQUENCE
+				+ Constants.PARAMS_FILE_ASSIGNMENT_CHAR + region;
+		boolean isTwoBit = filename.toLowerCase().endsWith(TwoBitReader.FILE_EXTENSION);
+		if(!isTwoBit && !new File(filename + FastaIndexReader.INDEX_EXTENSION).isFile()){
+			DNA dna = fastaFileParser(filename, region);
+			if(dna.description == null && !region.isEmpty() && new File(filename).exists()){
+				System.err.println("could not find the region '" + region + "' in " + filename);
+			} else if(dna.description != null){
+				dna.description += subsequence;
+			}
+			return dna;
+		}
+
+		DNA dna = new DNA();
+		if(new File(filename).exists()){
+			try (SequenceFileReader reader = isTwoBit ? new TwoBitReader(filename) : new FastaIndexReader(filename)) {
+				int record = findRecord(reader, region);
+				if(record == Constants.NONE && region.isEmpty() && !isTwoBit){
+					// all the records of the fasta file, as without index
+					return fastaFileParser(filename);
+				} else if(record == Constants.NONE){
+					System.err.println("could not find the region '" + region + "' in " + filename
+							+ (region.isEmpty() ? " (DNA_SEQUENCE_REGION is needed for .2bit files with several records)" : ""));
+					return dna;
+				}
+				String description = reader.getHeader(record) + subsequence;
+				int length = reader.getLength(record);
+
+				// the part of the record which DNA keeps
+				DNA buffer = new DNA();
+				buffer.parseDescription(description, length, "");
+				int start = Math.max(0, Math.min(length, buffer.getSubsequenceStart()));
+				int end = Math.max(start, Math.min(length, buffer.getSubsequenceEnd(length)));
+
+				dna.description = description;
+				dna.loadSequence(reader.read(record, start, end), start, length);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+		return dna;
+	}
+
+	/**
+	 * returns the record of a region: the one whose name, or the chromosome of whose description, is the chromosome
+	 * of the region, or the only record if the region is empty
+	 */
+	private static int findRecord(SequenceFileReader reader, String region) throws IOException {
+		if(region.isEmpty()){
+			return reader.getRecordsNo() == 1 ? 0 : Constants.NONE;
+		}
+		for(int i = 0; i < reader.getRecordsNo(); i++){
+			if(isRecordName(reader.getName(i), region)){
+				return i;
+			}
+		}
+		for(int i = 0; i < reader.getRecordsNo(); i++){
+			if(isRecordDescription(reader.getHeader(i), region)){
+				return i;
+			}
+		}
+		return Constants.NONE;
+	}
+
+	/**
+	 * returns the chromosome of a region (e.g. chr2R of chr2R:1000..5000)
+	 */
+	private static String getChromosome(String region) {
+		return region.contains(Constants.FASTA_FILE_DESCRIPTION_CHROMOSOME_DELIMITER)
+				? region.substring(0, region.indexOf(Constants.FASTA_FILE_DESCRIPTION_CHROMOSOME_DELIMITER)).trim()
+				: region;
+	}
+
+	/**
+	 * whether a record is the one of the region, by the name (the first word of the header) or by the description
+	 */
+	private static boolean isRecordOf(String header, String region) {
+		return isRecordName(header.split("\\s+")[0], region) || isRecordDescription(header, region);
+	}
+
+	/**
+	 * whether the name of a record is the chromosome of the region (or the region itself)
+	 */
+	private static boolean isRecordName(String name, String region) {
+		return name.equals(getChromosome(region)) || name.equals(region);
+	}
+
+	/**
+	 * whether the chromosome of the description of a record is the chromosome of the region
+	 */
+	private static boolean isRecordDescription(String header, String region) {
+		DNAregion recordRegion = new DNAregion(header.split(Constants.DNA_FASTA_DELIMITER)[0], "", 0, 0, false, false);
+		return recordRegion.chromosome.equals(getChromosome(region));
+	}
+
+	/**
+	 * reads the sequence of a fasta file. The file is memory mapped and scanned once; the letters are translated
+	 * straight into the packed sequence, so no intermediary list is built. The records of a multi-record file are
+	 * concatenated and the description is the one of the last record.
+	 */
 	public static DNA fastaFileParser(String filename){
+		return fastaFileParser(filename, "");
+	}
+
+	/**
+	 * reads the sequence of one record of a fasta file without index: the first record whose name (the first word
+	 * of its header) or the chromosome of whose description is the chromosome of the region. The other records are
+	 * skipped while scanning. The description is null if no record matches.
+	 * @param region the region which is simulated, or empty for all the records (as fastaFileParser(filename))
+	 */
+	public static DNA fastaFileParser(String filename, String region){
 		DNA dna=new DNA();
 		File f = new File(filename);
 		if(f.exists()){
-			ArrayList<Byte> strand = new ArrayList<Byte>();
-			BufferedReader reader = null;
-		        try
-		        {
-		            reader = new BufferedReader(new FileReader(filename));
-		            String text = null;
-		            
-		            String currentName = "";
-		            while ((text = reader.readLine()) != null){
-			            	text=text.trim();
-			            	if(!text.isEmpty()){
-			            		if(text.startsWith(">")){	
-			            			currentName =  text.replaceAll(">", "").trim();
-			            		} else{	
-			            			strand.addAll(CellUtils.getSequenceIDs(text));
-			            		}
-			            	}
-		            }
-		            
-		            dna.description = currentName;
-		            dna.loadSequence(strand);
-		        } catch (Exception e) {
-		            e.printStackTrace();
-		        } finally {
-		            try
-		            {
-		                if (reader != null){
-		                    reader.close();
-		                }
-		            } catch (IOException e)
-		            {
-		                e.printStackTrace();
-		            }
-		        }
+			try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+				long size = channel.size();
+				PackedSequence.Builder strand = new PackedSequence.Builder((int) Math.min(size, Integer.MAX_VALUE));
+				StringBuilder name = new StringBuilder();
+				String currentName = "";
+				boolean isHeader = false, isLineStart = true;
+				// whether the letters belong to the selected record, and whether it was found
+				boolean isAll = region.isEmpty(), isSelected = isAll, isFound = false;
+				byte letter, id;
+
+				for (long position = 0; position < size && !(isFound && !isSelected); position += FASTA_MAP_SIZE) {
+					MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+							Math.min(FASTA_MAP_SIZE, size - position));
+					while (buffer.hasRemaining() && !(isFound && !isSelected)) {
+						letter = buffer.get();
+						if (isHeader) {
+							if (letter == '\n' || letter == '\r') {
+								isHeader = false;
+								String header = name.toString().replaceAll(">", "").trim();
+								isSelected = isAll || (!isFound && isRecordOf(header, region));
+								if (isSelected) {
+									currentName = header;
+									isFound = !isAll;
+								}
+							} else {
+								name.append((char) (letter & 0xff));
+							}
+						} else if (letter == '>' && isLineStart) {
+							isHeader = true;
+							isSelected = isAll;
+							name.setLength(0);
+						} else if (isSelected) {
+							id = NUCLEOTIDE_IDS[letter & 0xff];
+							if (id != Constants.NONE) {
+								strand.append(id);
+							}
+						}
+						// the leading blanks of a line are ignored, as the lines are trimmed
+						isLineStart = letter == '\n' || letter == '\r'
+								|| (isLineStart && (letter == ' ' || letter == '\t'));
+					}
+				}
+				if (isHeader && (isAll || (!isFound && isRecordOf(name.toString().replaceAll(">", "").trim(), region)))) {
+					currentName = name.toString().replaceAll(">", "").trim();
+					isFound = !isAll;
+				}
+
+				if (isAll || isFound) {
+					dna.description = currentName;
+					dna.loadSequence(strand.build());
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
 		}
-		
-	    return dna;
+
+		return dna;
 	}
 
-	// returns an error string or an empty string if succeeded
+	/**
+	 * maps the upper and lower case letters of the nucleotides to their IDs. The other printable letters (for example
+	 * the IUPAC codes) are read as N, as they count as positions in a .fai index, so a fasta file gives the same
+	 * sequence with or without index; the blanks and the line ends are skipped
+	 */
+	private static byte[] buildNucleotideIDs() {
+		byte[] ids = new byte[256];
+		Arrays.fill(ids, (byte) Constants.NONE);
+		Arrays.fill(ids, '!', 128, CellUtils.bpANYID);
+		for (String bp : CellUtils.bps.bps) {
+			ids[bp.toUpperCase().charAt(0)] = CellUtils.bps.bpsID.get(bp);
+			ids[bp.toLowerCase().charAt(0)] = CellUtils.bps.bpsID.get(bp);
+		}
+		return ids;
+	}
+
+	/**
+	 * reads the dna accessibility of a btrack file (one line per position, 1 if it is open) or of a binary
+	 * accessibility file (BinaryTrackFile). The text file is read as a stream of bytes.
+	 * @return an error string or an empty string if succeeded
+	 */
 	public static String btrackFileParser(String filename, byte[] closed) {
-		ArrayList<Byte> bufferClosed = new ArrayList<>();
 		File f = new File(filename);
 		if(f.exists()) {
 			try {
-				BufferedReader reader = new BufferedReader(new FileReader(filename));
-				String buffer;
-
-				while ((buffer = reader.readLine()) != null) {
-					bufferClosed.add(Byte.parseByte(buffer));
+				int count;
+				if (BinaryTrackFile.isAccessibility(filename)) {
+					count = BinaryTrackFile.readAccessibility(filename, closed);
+				} else {
+					byte[] bufferClosed = new byte[closed.length];
+					try (TextTrackReader reader = new TextTrackReader(filename, ',')) {
+						while (reader.nextLine()) {
+							byte value = reader.getLineByte();
+							if (reader.getLineNo() <= bufferClosed.length) {
+								bufferClosed[reader.getLineNo() - 1] = value == 1 ? Constants.BP_IS_OPEN : Constants.BP_IS_CLOSED;
+							}
+						}
+						count = reader.getLineNo();
+					}
+					if (count == closed.length) {
+						System.arraycopy(bufferClosed, 0, closed, 0, count);
+					}
 				}
-				reader.close();
 
-				if (bufferClosed.size() == closed.length) {
-					for (int i = 0; i < bufferClosed.size(); i++) {
-						closed[i] = bufferClosed.get(i) == 1 ? Constants.BP_IS_OPEN : Constants.BP_IS_CLOSED;
-					}
+				if (count == closed.length) {
 					return "";
 				}
 				return "different size of dna strand and dna accessibility (btrack) files";
@@ -87,4 +259,58 @@ public class DNAFilesParser {
 			return "the dna accessibility file does not exist";
 		}
 	}
+
+	/**
+	 * reads the affinities of an affinity landscape file into the arrays, either a csv file (read as a stream of bytes,
+	 * the numbers are parsed in place) or a binary landscape file (BinaryTrackFile). The rows of a csv file without
+	 * position column are the positions from 0. The reading stops after the first row past the end of the arrays.
+	 * @param escapeLines the number of header lines of the csv file
+	 * @param posCol the column of the position (from 0), or NONE
+	 * @param colLR the column of the affinity 5'3'
+	 * @param colRL the column of the affinity 3'5'
+	 * @param firstPosition the absolute position of the first element of the arrays
+	 * @return an error string or an empty string if succeeded
+	 */
+	public static String landscapeFileParser(String filename, int escapeLines, int posCol, int colLR, int colRL,
+			long firstPosition, double[] affinitiesLR, double[] affinitiesRL) throws IOException {
+		int length = affinitiesLR.length;
+		if (BinaryTrackFile.isLandscape(filename)) {
+			if (BinaryTrackFile.readLandscape(filename, firstPosition, affinitiesLR, affinitiesRL) < length) {
+				return "insufficient entries in the affinity file";
+			}
+			return "";
+		}
+
+		int maxCol = Math.max(Math.max(colLR, colRL), posCol);
+		int actualPos = Constants.NONE;
+		// the empty lines are skipped, also among the header lines
+		int lines = 0;
+		try (TextTrackReader reader = new TextTrackReader(filename, Constants.AFFINITY_CSV_FILE_DELIMITER.charAt(0))) {
+			while (actualPos < length && reader.nextLine()) {
+				if (reader.isEmpty() || lines++ < escapeLines) {
+					continue;
+				}
+				if (reader.getColumnsNo() <= maxCol) {
+					return "could not parse line " + reader.getLineNo() + ": " + reader.getLine();
+				}
+				long currentPos = posCol < 0 ? lines - escapeLines - 1
+						: Math.round(reader.getDouble(posCol, Constants.NONE));
+				actualPos = (int) (currentPos - firstPosition);
+				if (actualPos >= 0 && actualPos < length) {
+					affinitiesLR[actualPos] = reader.getDouble(colLR, Constants.NONE);
+					affinitiesRL[actualPos] = reader.getDouble(colRL, Constants.NONE);
+				}
+			}
+			// the number of lines is checked even if the rows past the end of the arrays are not parsed
+			while (lines - escapeLines < length && reader.nextLine()) {
+				if (!reader.isEmpty()) {
+					lines++;
+				}
+			}
+		}
+		if (lines - escapeLines < length) {
+			return "insufficient entries in the affinity file";
+		}
+		return "";
+	}
 }
@@ -0,0 +1,288 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * random access reader of a fasta file with a samtools .fai index (one line per record: name, length, offset of the
+ * first nucleotide, nucleotides per line, bytes per line). The position of any nucleotide is computed from the index,
+ * so a region is read by seeking to it. The letters which are not nucleotides (for example the IUPAC codes) are read
+ * as N, since in the index they count as positions.
+ */
+public class FastaIndexReader implements SequenceFileReader {
+
+    public static final String INDEX_EXTENSION = ".fai";
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_HEADER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final String[] names;
+    private final int[] lengths;
+    private final long[] offsets;
+    private final int[] lineBases;
+    private final int[] lineWidths;
+
+    /**
+     * class constructor. The index is the file with the same name and the .fai extension
+     *
+     * @param filename the fasta file
+     */
+    public FastaIndexReader(String filename) throws IOException {
+        ArrayList<String[]> entries = new ArrayList<String[]>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename + INDEX_EXTENSION))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    String[] cells = line.split("\t");
+                    if (cells.length < 5) {
+                        throw new IOException("could not parse the fasta index line: " + line);
+                    }
+                    entries.add(cells);
+                }
+            }
+        }
+
+        names = new String[entries.size()];
+        lengths = new int[entries.size()];
+        offsets = new long[entries.size()];
+        lineBases = new int[entries.size()];
+        lineWidths = new int[entries.size()];
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                names[i] = entries.get(i)[0];
+                lengths[i] = Integer.parseInt(entries.get(i)[1].trim());
+                offsets[i] = Long.parseLong(entries.get(i)[2].trim());
+                lineBases[i] = Integer.parseInt(entries.get(i)[3].trim());
+                lineWidths[i] = Integer.parseInt(entries.get(i)[4].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("could not parse the fasta index " + filename + INDEX_EXTENSION, e);
+        }
+        channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ);
+    }
+
+    @Override
+    public int getRecordsNo() {
+        return names.length;
+    }
+
+    @Override
+    public String getName(int record) {
+        return names[record];
+    }
+
+    /**
+     * reads the header line which ends just before the first nucleotide of the record
+     */
+    @Override
+    public String getHeader(int record) throws IOException {
+        int size = (int) Math.min(offsets[record], MAX_HEADER_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        readFully(buffer, offsets[record] - size);
+        byte[] bytes = buffer.array();
+        int last = size - 1;
+        while (last >= 0 && (bytes[last] == '\n' || bytes[last] == '\r')) {
+            last--;
+        }
+        int first = last;
+        while (first >= 0 && bytes[first] != '\n' && bytes[first] != '\r') {
+            first--;
+        }
+        return new String(bytes, first + 1, last - first, StandardCharsets.ISO_8859_1).replaceAll(">", "").trim();
+    }
+
+    @Override
+    public int getLength(int record) {
+        return lengths[record];
+    }
+
+    @Override
+    public PackedSequence read(int record, int start, int end) throws IOException {
+        if (start < 0 || end > lengths[record] || start > end) {
+            throw new IOException("region " + start + ".." + end + " outside of " + names[record] + " (length "
+                    + lengths[record] + ")");
+        }
+        PackedSequence.Builder seq = new PackedSequence.Builder(end - start);
+        long position = getFilePosition(record, start);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (seq.length() < end - start) {
+            buffer.clear();
+            if (channel.read(buffer, position) < 0) {
+                throw new IOException("unexpected end of file in " + names[record]);
+            }
+            buffer.flip();
+            position += buffer.remaining();
+            while (buffer.hasRemaining() && seq.length() < end - start) {
+                byte letter = buffer.get();
+                if (letter > ' ') {
+                    seq.append(DNAFilesParser.NUCLEOTIDE_IDS[letter & 0xff]);
+                }
+            }
+        }
+        return seq.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * returns the position in the file of a nucleotide
+     */
+    private long getFilePosition(int record, int position) {
+        return offsets[record] + (long) (position / lineBases[record]) * lineWidths[record]
+                + position % lineBases[record];
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("unexpected end of file");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * writes the .fai index of a fasta file. As with samtools faidx, all the lines of a record except the last one
+     * must have the same length.
+     *
+     * @param filename the fasta file
+     * @return the number of records
+     */
+    public static int buildIndex(String filename) throws IOException {
+        IndexBuilder index = new IndexBuilder(filename);
+        try (FileChannel in = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            StringBuilder header = null;
+            int bases = 0, width = 0;
+            for (long position = 0; position < size; position += BUFFER_SIZE) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(BUFFER_SIZE, size - position));
+                for (long i = position; buffer.hasRemaining(); i++) {
+                    byte letter = buffer.get();
+                    width++;
+                    if (letter == '\n') {
+                        if (header != null) {
+                            index.addRecord(header.toString(), i + 1);
+                            header = null;
+                        } else {
+                            index.addLine(bases, width);
+                        }
+                        bases = 0;
+                        width = 0;
+                    } else if (header != null) {
+                        header.append((char) (letter & 0xff));
+                    } else if (letter == '>' && width == 1) {
+                        header = new StringBuilder();
+                    } else if (letter > ' ') {
+                        bases++;
+                    }
+                }
+            }
+            // the last line has no line end
+            if (header != null) {
+                index.addRecord(header.toString(), size);
+            } else if (width > 0) {
+                index.addLine(bases, Integer.MAX_VALUE);
+            }
+        }
+        return index.write(filename + INDEX_EXTENSION);
+    }
+
+    /**
+     * the index lines of the records of a fasta file, built line by line
+     */
+    private static class IndexBuilder {
+        private final String filename;
+        private final StringBuilder index = new StringBuilder();
+        private int records = 0;
+        private String name = null;
+        private long length, offset;
+        private int lineBases, lineWidth;
+        private boolean isLastLine;
+
+        private IndexBuilder(String filename) {
+            this.filename = filename;
+        }
+
+        /**
+         * starts a record
+         *
+         * @param header the header line without the line end
+         * @param offset the position of the first nucleotide in the file
+         */
+        private void addRecord(String header, long offset) {
+            finishRecord();
+            String[] words = header.replaceAll(">", "").trim().split("\\s+");
+            this.name = words[0];
+            this.length = 0;
+            this.offset = offset;
+            this.lineBases = 0;
+            this.lineWidth = 0;
+            this.isLastLine = false;
+        }
+
+        /**
+         * adds a line of nucleotides
+         *
+         * @param bases the number of nucleotides
+         * @param width the number of bytes, with the line end
+         */
+        private void addLine(int bases, int width) throws IOException {
+            if (bases == 0) {
+                isLastLine = length > 0;
+                return;
+            }
+            if (name == null) {
+                throw new IOException("the fasta file " + filename + " does not start with a header");
+            }
+            if (isLastLine || (lineBases > 0 && (bases > lineBases || (bases == lineBases && width != lineWidth
+                    && width != Integer.MAX_VALUE)))) {
+                throw new IOException("different line length in sequence " + name + " of " + filename);
+            }
+            if (lineBases == 0) {
+                lineBases = bases;
+                lineWidth = width;
+            } else if (bases < lineBases) {
+                isLastLine = true;
+            }
+            length += bases;
+        }
+
+        private void finishRecord() {
+            if (name != null) {
+                index.append(name).append('\t').append(length).append('\t').append(offset).append('\t')
+                        .append(lineBases).append('\t').append(lineWidth).append('\n');
+                records++;
+            }
+        }
+
+        /**
+         * writes the index
+         *
+         * @return the number of records
+         */
+        private int write(String indexFilename) throws IOException {
+            finishRecord();
+            name = null;
+            try (BufferedWriter out = new BufferedWriter(new FileWriter(indexFilename))) {
+                out.write(index.toString());
+            }
+            return records;
+        }
+    }
+
+}
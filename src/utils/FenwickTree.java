@@ -0,0 +1,90 @@
+package utils;
+
+import java.io.Serializable;
+
+/**
+ * Fenwick (binary indexed) tree over non-negative integer counts. Point updates, prefix sums and the search of the slot
+ * which holds the k-th unit all take O(log n) operations.
+ */
+public class FenwickTree implements Serializable {
+
+    private static final long serialVersionUID = 4925016583214503641L;
+    private final int[] tree; // 1-based, tree[i] holds the sum of the slots (i - lowbit(i), i]
+    private final int size;
+    private final int highestBit;
+
+    /**
+     * class constructor. All the counts are zero
+     *
+     * @param size the number of slots
+     */
+    public FenwickTree(int size) {
+        this.size = size;
+        this.tree = new int[size + 1];
+        this.highestBit = size > 0 ? Integer.highestOneBit(size) : 0;
+    }
+
+    /**
+     * class constructor. Builds the tree from the counts in O(n)
+     *
+     * @param counts the initial counts of the slots
+     */
+    public FenwickTree(int[] counts) {
+        this(counts.length);
+        for (int i = 1; i <= size; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * adds a value to the count of a slot
+     *
+     * @param i     the slot (0-based)
+     * @param delta the value to add
+     */
+    public void add(int i, int delta) {
+        for (int j = i + 1; j <= size; j += j & -j) {
+            tree[j] += delta;
+        }
+    }
+
+    /**
+     * returns the sum of the counts of the slots 0..i
+     */
+    public long prefixSum(int i) {
+        long result = 0;
+        for (int j = Math.min(i + 1, size); j > 0; j -= j & -j) {
+            result += tree[j];
+        }
+        return result;
+    }
+
+    /**
+     * returns the first slot at which the prefix sum reaches k, or the number of slots if the total is smaller than k
+     *
+     * @param k the rank of the searched unit (at least 1)
+     */
+    public int find(long k) {
+        int position = 0;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] < k) {
+                position = next;
+                k -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * returns the number of slots
+     */
+    public int size() {
+        return size;
+    }
+
+}
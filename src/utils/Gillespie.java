@@ -18,9 +18,24 @@ public class Gillespie {
      * @return the time of the next reaction
      */
     public static double computeNextReactionTime(double propensitySum, Random generator) {
+        if (generator instanceof RandomVariates) {
+            return (1 / propensitySum) * ((RandomVariates) generator).nextExponential();
+        }
         return (1 / propensitySum) * Math.log(1 / generator.nextDouble());
     }
 
+    /**
+     * discards a reaction time which is not used. Only the legacy variates draw a number, so that old seeds give the
+     * same simulations
+     *
+     * @param generator a random number generator
+     */
+    public static void skipNextReactionTime(Random generator) {
+        if (!(generator instanceof RandomVariates) || ((RandomVariates) generator).isLegacy()) {
+            generator.nextDouble();
+        }
+    }
+
     /**
      * computes the next reaction time according to Gillespie algorithm
      *
@@ -29,6 +44,9 @@ public class Gillespie {
      * @return the time of the next reaction
      */
     public static double computeNextReactionTimeFromWaitingTime(double waitingTimeSum, Random generator) {
+        if (generator instanceof RandomVariates) {
+            return (waitingTimeSum) * ((RandomVariates) generator).nextExponential();
+        }
         return (waitingTimeSum) * Math.log(1 / generator.nextDouble());
     }
 
@@ -133,10 +151,77 @@ public class Gillespie {
 
 
     /**
-     * generate the next position to bind on DNA based on Gillespie algorithm
+     * generate the next position to bind on DNA based on Gillespie algorithm. The sector is found in O(log n) through
+     * the Fenwick tree of the sector sums and the position inside the sector by counting the set bits of its words
      *
-     * @param value the propensity sum multiplied by a random number
-     * @return the index of the next mRNA species likely to attract a ribosome
+     * @param value       the number of available positions multiplied by a random number
+     * @param sectorIndex the Fenwick tree of the number of available positions in each sector
+     * @param sectorSize  the size of a sector
+     * @return the position
+     */
+    public static int getNextPositionToBind(double value, LongBitSet availability, FenwickTree sectorIndex,
+                                            int sectorSize) {
+        // the position is the k-th available one, as in the scan over all sectors below
+        long k = Math.max(1, (long) Math.ceil(value));
+        int sector = sectorIndex.find(k);
+        if (sector < sectorIndex.size()) {
+            long sum = sector > 0 ? sectorIndex.prefixSum(sector - 1) : 0;
+            int position = availability.select(sector * sectorSize, (int) (k - sum));
+            if (position != Constants.NONE && position < (sector + 1) * sectorSize) {
+                return position;
+            }
+        }
+
+        throw new RuntimeException("Error while computing next reaction sum:" + value + "\nPropensities: "
+                + sectorIndex.prefixSum(sectorIndex.size() - 1));
+    }
+
+    /**
+     * generates the next position to bind inside the region which starts at a position. The position is the k-th
+     * available one after the available positions which are before the region, so it is found in O(log n) as above
+     *
+     * @param value       the number of available positions in the region multiplied by a random number
+     * @param sectorIndex the Fenwick tree of the number of available positions in each sector
+     * @param sectorSize  the size of a sector
+     * @param start       the first position of the region
+     * @return the position
+     */
+    public static int getNextPositionToBind(double value, LongBitSet availability, FenwickTree sectorIndex,
+                                            int sectorSize, int start) {
+        long k = Math.max(1, (long) Math.ceil(value));
+        return getNextPositionToBind(countAvailablePositions(availability, sectorIndex, sectorSize, start) + k,
+                availability, sectorIndex, sectorSize);
+    }
+
+    /**
+     * returns the number of available positions in [start, end)
+     *
+     * @param sectorIndex the Fenwick tree of the number of available positions in each sector
+     * @param sectorSize  the size of a sector
+     */
+    public static int countAvailablePositions(LongBitSet availability, FenwickTree sectorIndex, int sectorSize,
+                                              int start, int end) {
+        return (int) (countAvailablePositions(availability, sectorIndex, sectorSize, end)
+                - countAvailablePositions(availability, sectorIndex, sectorSize, start));
+    }
+
+    /**
+     * returns the number of available positions before a position: the sum of the previous sectors plus the set bits
+     * of its own sector
+     */
+    private static long countAvailablePositions(LongBitSet availability, FenwickTree sectorIndex, int sectorSize,
+                                                int position) {
+        int sector = position / sectorSize;
+        long result = sector > 0 ? sectorIndex.prefixSum(sector - 1) : 0;
+        return result + availability.count(sector * sectorSize, position);
+    }
+
+    /**
+     * generates the next position to bind by scanning the sector sums and then the availability of the chosen sector
+     *
+     * @param value      the number of available positions multiplied by a random number
+     * @param sectorSum  the number of available positions in each sector
+     * @param sectorSize the size of a sector
      */
     public static int getNextPositionToBind(double value, boolean[] availability, int[] sectorSum, int sectorSize) {
         long sum = 0;
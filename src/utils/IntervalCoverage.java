@@ -0,0 +1,202 @@
+package utils;
+
+import java.io.Serializable;
+
+/**
+ * set of intervals where each position counts the intervals which cover it. The counts are stored as a step function
+ * in two sorted primitive arrays (the start of each step and the count until the next step), so adding or removing an
+ * interval costs a binary search plus the number of steps, whatever its length, and allocates nothing once the arrays
+ * are large enough. There are at most two steps per interval. Overlapping intervals compose: a position stays covered
+ * until all the intervals which cover it are removed.
+ */
+public class IntervalCoverage implements Serializable {
+
+    private static final long serialVersionUID = 7316205980446618213L;
+    private int[] stepStart; // the start of each step, in increasing order
+    private int[] stepCount; // the count from the start of each step until the next step
+    private int stepsNo;
+    // the intervals which became covered or uncovered during the last update (start, end pairs)
+    private int[] changed;
+    private int changedNo;
+
+    /**
+     * class constructor. No position is covered
+     */
+    public IntervalCoverage() {
+        stepStart = new int[16];
+        stepCount = new int[16];
+        stepsNo = 0;
+        changed = new int[16];
+        changedNo = 0;
+    }
+
+    /**
+     * adds an interval
+     *
+     * @param start inclusive
+     * @param end   exclusive
+     * @return the number of intervals which were not covered before; they are returned by getChangedStart/End
+     */
+    public int add(int start, int end) {
+        return update(start, end, 1);
+    }
+
+    /**
+     * removes an interval which was added before
+     *
+     * @param start inclusive
+     * @param end   exclusive
+     * @return the number of intervals which are not covered anymore; they are returned by getChangedStart/End
+     */
+    public int remove(int start, int end) {
+        return update(start, end, -1);
+    }
+
+    /**
+     * removes all the intervals
+     *
+     * @return the number of intervals which are not covered anymore; they are returned by getChangedStart/End
+     */
+    public int clear() {
+        changedNo = 0;
+        for (int step = 0; step < stepsNo; step++) {
+            if (stepCount[step] > 0) {
+                addChanged(stepStart[step], stepStart[step + 1]);
+            }
+        }
+        stepsNo = 0;
+        return changedNo;
+    }
+
+    /**
+     * returns the number of intervals which became covered or uncovered during the last update
+     */
+    public int getChangedNo() {
+        return changedNo;
+    }
+
+    /**
+     * returns the start (inclusive) of an interval which changed during the last update
+     */
+    public int getChangedStart(int i) {
+        return changed[2 * i];
+    }
+
+    /**
+     * returns the end (exclusive) of an interval which changed during the last update
+     */
+    public int getChangedEnd(int i) {
+        return changed[2 * i + 1];
+    }
+
+    /**
+     * returns the number of intervals which cover a position
+     */
+    public int getCount(int position) {
+        int step = floorStep(position);
+        return step == Constants.NONE ? 0 : stepCount[step];
+    }
+
+    /**
+     * returns true if no position is covered
+     */
+    public boolean isEmpty() {
+        return stepsNo == 0;
+    }
+
+    /**
+     * adds delta to the counts of [start, end) and records the intervals whose count changed from or to zero
+     */
+    private int update(int start, int end, int delta) {
+        changedNo = 0;
+        if (start >= end) {
+            return 0;
+        }
+        int first = split(start);
+        int last = split(end);
+        int changedFrom = Constants.NONE;
+        for (int step = first; step < last; step++) {
+            int count = stepCount[step];
+            assert count + delta >= 0;
+            stepCount[step] = count + delta;
+            boolean changes = (count == 0) != (count + delta == 0);
+            if (changes && changedFrom == Constants.NONE) {
+                changedFrom = stepStart[step];
+            } else if (!changes && changedFrom != Constants.NONE) {
+                addChanged(changedFrom, stepStart[step]);
+                changedFrom = Constants.NONE;
+            }
+        }
+        if (changedFrom != Constants.NONE) {
+            addChanged(changedFrom, end);
+        }
+        merge(last);
+        merge(first);
+        return changedNo;
+    }
+
+    /**
+     * returns the index of the last step which starts at or before a position, or Constants.NONE if there is none
+     */
+    private int floorStep(int position) {
+        int low = 0;
+        int high = stepsNo - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (stepStart[middle] <= position) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 ? high : Constants.NONE;
+    }
+
+    /**
+     * makes sure that a step starts at a position and returns its index
+     */
+    private int split(int position) {
+        int previous = floorStep(position);
+        if (previous != Constants.NONE && stepStart[previous] == position) {
+            return previous;
+        }
+        int step = previous + 1;
+        if (stepsNo == stepStart.length) {
+            int[] buffer = new int[2 * stepStart.length];
+            System.arraycopy(stepStart, 0, buffer, 0, stepsNo);
+            stepStart = buffer;
+            buffer = new int[2 * stepCount.length];
+            System.arraycopy(stepCount, 0, buffer, 0, stepsNo);
+            stepCount = buffer;
+        }
+        System.arraycopy(stepStart, step, stepStart, step + 1, stepsNo - step);
+        System.arraycopy(stepCount, step, stepCount, step + 1, stepsNo - step);
+        stepStart[step] = position;
+        stepCount[step] = previous == Constants.NONE ? 0 : stepCount[previous];
+        stepsNo++;
+        return step;
+    }
+
+    /**
+     * removes a step if it has the same count as the previous one
+     */
+    private void merge(int step) {
+        if (step == 0 ? stepCount[step] == 0 : stepCount[step - 1] == stepCount[step]) {
+            System.arraycopy(stepStart, step + 1, stepStart, step, stepsNo - step - 1);
+            System.arraycopy(stepCount, step + 1, stepCount, step, stepsNo - step - 1);
+            stepsNo--;
+        }
+    }
+
+    private void addChanged(int start, int end) {
+        if (2 * changedNo + 2 > changed.length) {
+            int[] buffer = new int[2 * changed.length];
+            System.arraycopy(changed, 0, buffer, 0, changed.length);
+            changed = buffer;
+        }
+        changed[2 * changedNo] = start;
+        changed[2 * changedNo + 1] = end;
+        changedNo++;
+    }
+
+}
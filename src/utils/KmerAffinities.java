@@ -0,0 +1,141 @@
+package utils;
+
+import objects.DNAsequence;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the affinities of the sequences of a sequences file, keyed by the sequences encoded with 2 bits per nucleotide in a
+ * long (the first nucleotide in the highest bits, as PackedSequence.getKmer), so a position of the DNA is looked up
+ * without building a key object. The short sequences are stored in a dense table with an entry for every k-mer; the
+ * longer ones in an open addressing hash table. The sequences which contain N can not be encoded; they are kept in the
+ * original map.
+ */
+public class KmerAffinities {
+
+    public static final int MAX_K = 32;
+    private static final int MAX_DENSE_K = 10; // a dense table of 4^10 doubles takes 8 MB
+
+    public final int k;
+    private final double defaultAffinity;
+    private final double[] dense;
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] isUsed;
+    private final int mask;
+    private final HashMap<DNAsequence, Double> sequencesWithAny;
+
+    /**
+     * class constructor
+     *
+     * @param seqsAffinities  the sequences and their affinities
+     * @param k               the size of the sequences (at most MAX_K)
+     * @param defaultAffinity the affinity of the sequences which are not in the list
+     */
+    public KmerAffinities(HashMap<DNAsequence, Double> seqsAffinities, int k, double defaultAffinity) {
+        this.k = k;
+        this.defaultAffinity = defaultAffinity;
+
+        HashMap<DNAsequence, Double> withAny = new HashMap<DNAsequence, Double>();
+        HashMap<Long, Double> encoded = new HashMap<Long, Double>();
+        for (Map.Entry<DNAsequence, Double> entry : seqsAffinities.entrySet()) {
+            byte[] seq = entry.getKey().seq;
+            if (seq.length != k) {
+                continue;
+            }
+            long kmer = 0;
+            boolean isEncoded = true, hasAny = false;
+            for (byte bp : seq) {
+                if (bp >= 0 && bp < CellUtils.bps.numberOfBP) {
+                    kmer = (kmer << 2) | bp;
+                } else {
+                    isEncoded = false;
+                    hasAny |= bp == CellUtils.bpANYID;
+                }
+            }
+            // the sequences with other letters never match the DNA
+            if (isEncoded) {
+                encoded.put(kmer, entry.getValue());
+            } else if (hasAny) {
+                withAny.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.sequencesWithAny = withAny.isEmpty() ? null : withAny;
+
+        if (k <= MAX_DENSE_K) {
+            dense = new double[1 << (2 * k)];
+            Arrays.fill(dense, defaultAffinity);
+            for (Map.Entry<Long, Double> entry : encoded.entrySet()) {
+                dense[(int) (long) entry.getKey()] = entry.getValue();
+            }
+            keys = null;
+            values = null;
+            isUsed = null;
+            mask = 0;
+        } else {
+            // a power of 2 at least twice the number of sequences, so the probes are short
+            int capacity = Integer.highestOneBit(Math.max(16, 2 * encoded.size() - 1)) << 1;
+            dense = null;
+            keys = new long[capacity];
+            values = new double[capacity];
+            isUsed = new boolean[capacity];
+            mask = capacity - 1;
+            for (Map.Entry<Long, Double> entry : encoded.entrySet()) {
+                int slot = hash(entry.getKey()) & mask;
+                while (isUsed[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                isUsed[slot] = true;
+                keys[slot] = entry.getKey();
+                values[slot] = entry.getValue();
+            }
+        }
+    }
+
+    /**
+     * returns the affinity of a sequence without N
+     *
+     * @param kmer the encoded sequence
+     */
+    public double get(long kmer) {
+        if (dense != null) {
+            return dense[(int) kmer];
+        }
+        for (int slot = hash(kmer) & mask; isUsed[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == kmer) {
+                return values[slot];
+            }
+        }
+        return defaultAffinity;
+    }
+
+    /**
+     * returns the affinity of a sequence which contains N
+     *
+     * @param seq the IDs of the nucleotides
+     */
+    public double get(byte[] seq) {
+        if (sequencesWithAny != null) {
+            Double value = sequencesWithAny.get(new DNAsequence(seq));
+            if (value != null) {
+                return value;
+            }
+        }
+        return defaultAffinity;
+    }
+
+    /**
+     * mixes the bits of a k-mer (the finaliser of MurmurHash3), since the low bits of close k-mers are alike
+     */
+    private static int hash(long kmer) {
+        kmer ^= kmer >>> 33;
+        kmer *= 0xff51afd7ed558ccdL;
+        kmer ^= kmer >>> 33;
+        kmer *= 0xc4ceb9fe1a85ec53L;
+        kmer ^= kmer >>> 33;
+        return (int) kmer;
+    }
+
+}
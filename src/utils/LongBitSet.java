@@ -0,0 +1,188 @@
+package utils;
+
+import java.io.Serializable;
+
+/**
+ * fixed size set of bits stored in 64 bit words. Unlike a boolean array it uses one bit per position, and ranges are
+ * set, cleared and counted a word at a time (Long.bitCount).
+ */
+public class LongBitSet implements Serializable {
+
+    private static final long serialVersionUID = -6203958716240937515L;
+    private final long[] words;
+    private final int length;
+
+    /**
+     * class constructor. All the bits are cleared
+     *
+     * @param length the number of bits
+     */
+    public LongBitSet(int length) {
+        this.length = length;
+        this.words = new long[(length + 63) >>> 6];
+    }
+
+    /**
+     * class constructor. Copies the bits of another bit set which are below the new length
+     *
+     * @param other  the bit set to copy, or null to start with all the bits cleared
+     * @param length the number of bits
+     */
+    public LongBitSet(LongBitSet other, int length) {
+        this(length);
+        if (other != null) {
+            System.arraycopy(other.words, 0, words, 0, Math.min(words.length, other.words.length));
+            if (length < other.length && (length & 63) != 0) {
+                words[words.length - 1] &= -1L >>> -length;
+            }
+        }
+    }
+
+    /**
+     * returns the number of bits
+     */
+    public int length() {
+        return length;
+    }
+
+    public boolean get(int i) {
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void set(int i) {
+        words[i >>> 6] |= 1L << i;
+    }
+
+    public void clear(int i) {
+        words[i >>> 6] &= ~(1L << i);
+    }
+
+    /**
+     * returns the number of set bits in [from, to)
+     */
+    public int count(int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        if (first == last) {
+            return Long.bitCount(words[first] & (-1L << from) & (-1L >>> -to));
+        }
+        int result = Long.bitCount(words[first] & (-1L << from));
+        for (int w = first + 1; w < last; w++) {
+            result += Long.bitCount(words[w]);
+        }
+        return result + Long.bitCount(words[last] & (-1L >>> -to));
+    }
+
+    /**
+     * clears the bits in [from, to)
+     *
+     * @return the number of bits which were set
+     */
+    public int clearRange(int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        int result = 0;
+        for (int w = first; w <= last; w++) {
+            long mask = rangeMask(w, first, last, from, to);
+            result += Long.bitCount(words[w] & mask);
+            words[w] &= ~mask;
+        }
+        return result;
+    }
+
+    /**
+     * sets the bits in [from, to) which are not set in another bit set
+     *
+     * @param excluded the bits which must not be set
+     * @return the number of bits which were not set before
+     */
+    public int setRangeExcept(int from, int to, LongBitSet excluded) {
+        if (from >= to) {
+            return 0;
+        }
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        int result = 0;
+        for (int w = first; w <= last; w++) {
+            long added = rangeMask(w, first, last, from, to) & ~excluded.words[w] & ~words[w];
+            result += Long.bitCount(added);
+            words[w] |= added;
+        }
+        return result;
+    }
+
+    /**
+     * returns the position of the k-th set bit at or after a position, or Constants.NONE if there are fewer set bits
+     *
+     * @param from the first position
+     * @param k    the rank of the bit (at least 1)
+     */
+    public int select(int from, int k) {
+        int w = from >>> 6;
+        if (w >= words.length) {
+            return Constants.NONE;
+        }
+        long word = words[w] & (-1L << from);
+        while (true) {
+            int bits = Long.bitCount(word);
+            if (bits >= k) {
+                // select inside the word: drop the k-1 lowest set bits
+                for (int i = 1; i < k; i++) {
+                    word &= word - 1;
+                }
+                int position = (w << 6) + Long.numberOfTrailingZeros(word);
+                return position < length ? position : Constants.NONE;
+            }
+            k -= bits;
+            w++;
+            if (w >= words.length) {
+                return Constants.NONE;
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * returns the first clear bit at or after a position, or the number of bits if there is none
+     */
+    public int nextClear(int from) {
+        if (from >= length) {
+            return length;
+        }
+        int w = from >>> 6;
+        long word = ~words[w] & (-1L << from);
+        while (word == 0) {
+            w++;
+            if (w >= words.length) {
+                return length;
+            }
+            word = ~words[w];
+        }
+        return Math.min(length, (w << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    /**
+     * returns the word w (the bits 64w to 64w+63)
+     */
+    long getWord(int w) {
+        return words[w];
+    }
+
+    /**
+     * returns the mask of the bits of the word w which are inside [from, to)
+     */
+    private static long rangeMask(int w, int first, int last, int from, int to) {
+        long mask = -1L;
+        if (w == first) {
+            mask &= -1L << from;
+        }
+        if (w == last) {
+            mask &= -1L >>> -to;
+        }
+        return mask;
+    }
+
+}
@@ -0,0 +1,195 @@
+package utils;
+
+import java.io.Serializable;
+
+/**
+ * DNA sequence stored with 2 bits per nucleotide (32 nucleotides per 64 bit word). The nucleotides which are not
+ * A, C, G or T (the ANY nucleotide N) are marked in a side bit set, which is only allocated if there is one, so the
+ * sequence takes a quarter of the memory of a byte array. The nucleotides are the IDs of CellUtils.bps, as in the byte
+ * arrays of the sequences, which are used at the I/O boundary and for the windows of the affinity computations.
+ */
+public class PackedSequence implements Serializable {
+
+    private static final long serialVersionUID = -2471963581204630871L;
+    private static final int BASES_PER_WORD = 32;
+
+    public final int length;
+    private final long[] words;
+    private final LongBitSet any; // the positions of N, null if there is none
+
+    /**
+     * class constructor
+     *
+     * @param seq the IDs of the nucleotides
+     */
+    public PackedSequence(byte[] seq) {
+        this(seq, 0, seq.length);
+    }
+
+    /**
+     * class constructor
+     *
+     * @param seq   the IDs of the nucleotides
+     * @param start inclusive
+     * @param end   exclusive
+     */
+    public PackedSequence(byte[] seq, int start, int end) {
+        this.length = Math.max(0, end - start);
+        this.words = new long[(length + BASES_PER_WORD - 1) / BASES_PER_WORD];
+        LongBitSet buffer = null;
+        for (int i = 0; i < length; i++) {
+            byte bp = seq[start + i];
+            if (bp >= 0 && bp < CellUtils.bps.numberOfBP) {
+                words[i >>> 5] |= (long) bp << ((i & 31) << 1);
+            } else {
+                if (buffer == null) {
+                    buffer = new LongBitSet(length);
+                }
+                buffer.set(i);
+            }
+        }
+        this.any = buffer;
+    }
+
+    private PackedSequence(int length, long[] words, LongBitSet any) {
+        this.length = length;
+        this.words = words;
+        this.any = any;
+    }
+
+    /**
+     * returns the ID of the nucleotide at a position
+     */
+    public byte get(int i) {
+        if (i < 0 || i >= length) {
+            throw new ArrayIndexOutOfBoundsException(i);
+        }
+        if (any != null && any.get(i)) {
+            return CellUtils.bpANYID;
+        }
+        return (byte) ((words[i >>> 5] >>> ((i & 31) << 1)) & 3);
+    }
+
+    /**
+     * returns the 2 bit codes of the nucleotides [start, start + k) packed in a long, the first one in the highest
+     * bits (k at most 32). The N nucleotides are read as A; use hasAny to check for them.
+     */
+    public long getKmer(int start, int k) {
+        long kmer = 0;
+        int i = start, end = start + k;
+        while (i < end) {
+            int offset = i & 31;
+            int n = Math.min(end - i, BASES_PER_WORD - offset);
+            long word = words[i >>> 5] >>> (offset << 1);
+            for (int j = 0; j < n; j++) {
+                kmer = (kmer << 2) | (word & 3);
+                word >>>= 2;
+            }
+            i += n;
+        }
+        return kmer;
+    }
+
+    /**
+     * returns true if there is an N nucleotide in [start, end)
+     */
+    public boolean hasAny(int start, int end) {
+        return any != null && any.count(start, end) > 0;
+    }
+
+    /**
+     * copies the IDs of the nucleotides [start, end) to an array
+     */
+    public void get(int start, int end, byte[] dst, int dstOffset) {
+        if (start < 0 || end > length) {
+            throw new ArrayIndexOutOfBoundsException(start < 0 ? start : end);
+        }
+        for (int i = start; i < end; i++) {
+            dst[dstOffset + i - start] = (any != null && any.get(i)) ? CellUtils.bpANYID
+                    : (byte) ((words[i >>> 5] >>> ((i & 31) << 1)) & 3);
+        }
+    }
+
+    /**
+     * returns the IDs of the nucleotides [start, end)
+     */
+    public byte[] toBytes(int start, int end) {
+        byte[] result = new byte[Math.max(0, end - start)];
+        get(start, end, result, 0);
+        return result;
+    }
+
+    /**
+     * returns the IDs of all the nucleotides
+     */
+    public byte[] toBytes() {
+        return toBytes(0, length);
+    }
+
+    /**
+     * returns the subsequence [start, end)
+     */
+    public PackedSequence subSequence(int start, int end) {
+        if (start == 0 && end == length) {
+            return this;
+        }
+        return new PackedSequence(toBytes(start, end));
+    }
+
+    /**
+     * builds a sequence nucleotide by nucleotide, without keeping a byte per nucleotide
+     */
+    public static class Builder {
+        private long[] words;
+        private LongBitSet any; // the positions of N, null if there is none
+        private int length = 0;
+
+        public Builder() {
+            this(512);
+        }
+
+        /**
+         * class constructor
+         *
+         * @param capacity the expected number of nucleotides (for example the size of the file), which avoids growing
+         */
+        public Builder(int capacity) {
+            words = new long[(int) Math.max(1, (capacity + (long) BASES_PER_WORD - 1) / BASES_PER_WORD)];
+        }
+
+        /**
+         * appends a nucleotide
+         *
+         * @param bp the ID of the nucleotide
+         */
+        public Builder append(byte bp) {
+            if ((length >>> 5) >= words.length) {
+                long[] buffer = new long[2 * words.length];
+                System.arraycopy(words, 0, buffer, 0, words.length);
+                words = buffer;
+            }
+            if (bp >= 0 && bp < CellUtils.bps.numberOfBP) {
+                words[length >>> 5] |= (long) bp << ((length & 31) << 1);
+            } else {
+                if (any == null || any.length() <= length) {
+                    any = new LongBitSet(any, words.length * BASES_PER_WORD);
+                }
+                any.set(length);
+            }
+            length++;
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public PackedSequence build() {
+            long[] result = new long[(length + BASES_PER_WORD - 1) / BASES_PER_WORD];
+            System.arraycopy(words, 0, result, 0, result.length);
+            LongBitSet resultAny = any == null ? null : new LongBitSet(any, length);
+            return new PackedSequence(length, result, resultAny);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * runs a loop over the positions of the DNA in chunks of fixed size on the common fork/join pool. The chunks do not
+ * depend on the number of threads, so a loop which draws random numbers from a stream per chunk gives the same result
+ * whatever the parallelism. The chunks start at multiples of 64, so the chunks of a loop which sets the bits of a
+ * LongBitSet do not share its words.
+ */
+public class ParallelChunks {
+
+    public static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * the body of a loop; it is called for disjoint ranges from different threads
+     */
+    public interface Body {
+        /**
+         * @param chunk the index of the chunk (from / CHUNK_SIZE for the first chunk)
+         * @param start inclusive
+         * @param end   exclusive
+         */
+        void run(int chunk, int start, int end);
+    }
+
+    /**
+     * runs the body over [0, length) and waits until all the chunks are done
+     */
+    public static void forEach(int length, Body body) {
+        int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks <= 1) {
+            if (length > 0) {
+                body.run(0, 0, length);
+            }
+        } else {
+            ForkJoinPool.commonPool().invoke(new Task(body, length, 0, chunks));
+        }
+    }
+
+    /**
+     * splits the chunks [firstChunk, lastChunk) in halves until a single chunk is left
+     */
+    private static class Task extends RecursiveAction {
+        private static final long serialVersionUID = 2960412879473618529L;
+        private final Body body;
+        private final int length;
+        private final int firstChunk;
+        private final int lastChunk;
+
+        private Task(Body body, int length, int firstChunk, int lastChunk) {
+            this.body = body;
+            this.length = length;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                int start = firstChunk * CHUNK_SIZE;
+                body.run(firstChunk, start, Math.min(length, start + CHUNK_SIZE));
+            } else {
+                int middle = (firstChunk + lastChunk) >>> 1;
+                invokeAll(new Task(body, length, firstChunk, middle), new Task(body, length, middle, lastChunk));
+            }
+        }
+    }
+
+}
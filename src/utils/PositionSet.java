@@ -0,0 +1,122 @@
+package utils;
+
+import java.io.Serializable;
+
+/**
+ * ordered set of positions stored as a tree of 64 bit words: the lowest level holds one bit per position and each bit
+ * of an upper level tells whether a word of the level below is not empty. The next and the previous position of the
+ * set from any position are found in O(log64 n) word operations, whatever the distance between them, and adding or
+ * removing a position only touches the upper levels when a word becomes empty or not empty.
+ */
+public class PositionSet implements Serializable {
+
+    private static final long serialVersionUID = -3841190673504628410L;
+    private final LongBitSet[] levels;
+
+    /**
+     * class constructor. The set is empty
+     *
+     * @param length the number of positions
+     */
+    public PositionSet(int length) {
+        int levelsNo = 1;
+        for (int size = length; size > 64; size = (size + 63) >>> 6) {
+            levelsNo++;
+        }
+        levels = new LongBitSet[levelsNo];
+        for (int l = 0, size = length; l < levelsNo; l++, size = (size + 63) >>> 6) {
+            levels[l] = new LongBitSet(Math.max(1, size));
+        }
+    }
+
+    /**
+     * returns the bits of the positions. They must not be modified directly
+     */
+    public LongBitSet bits() {
+        return levels[0];
+    }
+
+    public boolean contains(int position) {
+        return levels[0].get(position);
+    }
+
+    public void add(int position) {
+        for (int l = 0; l < levels.length; l++) {
+            boolean wasEmpty = levels[l].getWord(position >>> 6) == 0;
+            levels[l].set(position);
+            if (!wasEmpty) {
+                break;
+            }
+            position >>>= 6;
+        }
+    }
+
+    public void remove(int position) {
+        for (int l = 0; l < levels.length; l++) {
+            levels[l].clear(position);
+            if (levels[l].getWord(position >>> 6) != 0) {
+                break;
+            }
+            position >>>= 6;
+        }
+    }
+
+    /**
+     * returns the first position of the set which is at least the specified one, or Constants.NONE if there is none
+     */
+    public int next(int from) {
+        int i = Math.max(0, from);
+        int l = 0;
+        while (true) {
+            if (i >= levels[l].length()) {
+                return Constants.NONE;
+            }
+            long word = levels[l].getWord(i >>> 6) & (-1L << i);
+            if (word != 0) {
+                i = (i & ~63) + Long.numberOfTrailingZeros(word);
+                break;
+            }
+            // continue with the next word, looked up in the level above
+            i = (i >>> 6) + 1;
+            l++;
+            if (l == levels.length) {
+                return Constants.NONE;
+            }
+        }
+        while (l > 0) {
+            l--;
+            i = (i << 6) + Long.numberOfTrailingZeros(levels[l].getWord(i));
+        }
+        return i;
+    }
+
+    /**
+     * returns the last position of the set which is at most the specified one, or Constants.NONE if there is none
+     */
+    public int previous(int from) {
+        int i = Math.min(from, levels[0].length() - 1);
+        int l = 0;
+        while (true) {
+            if (i < 0) {
+                return Constants.NONE;
+            }
+            long word = levels[l].getWord(i >>> 6) & (-1L >>> (63 - (i & 63)));
+            if (word != 0) {
+                i = (i & ~63) + 63 - Long.numberOfLeadingZeros(word);
+                break;
+            }
+            // continue with the previous word, looked up in the level above
+            i = (i >>> 6) - 1;
+            l++;
+            if (l == levels.length) {
+                return Constants.NONE;
+            }
+        }
+        while (l > 0) {
+            l--;
+            i = (i << 6) + 63 - Long.numberOfLeadingZeros(levels[l].getWord(i));
+        }
+        return i;
+    }
+
+}
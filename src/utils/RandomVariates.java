@@ -0,0 +1,182 @@
+package utils;
+
+import java.util.Random;
+
+/**
+ * random number generator which draws the exponential and normal variates of the simulation. In the ziggurat mode the
+ * variates are generated with the Ziggurat method of Marsaglia and Tsang (2000), which in most cases needs a single
+ * 64 bit random number, one table lookup and one multiplication. The layer is taken from the low bits and the value
+ * from the high 32 bits of the random number, so the two are not correlated.
+ * In the legacy mode the variates are the ones of the previous versions (inversion and Box-Muller from
+ * java.util.Random), so old seeds reproduce the same simulations.
+ */
+public class RandomVariates extends Random {
+
+    private static final long serialVersionUID = 6083950912732145671L;
+
+    // Ziggurat tables: 128 layers for the normal and 256 layers for the exponential distribution
+    private static final double NORMAL_R = 3.442619855899;
+    private static final double NORMAL_V = 9.91256303526217e-3;
+    private static final double EXPONENTIAL_R = 7.697117470131487;
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3;
+    private static final long[] KN = new long[128];
+    private static final double[] WN = new double[128];
+    private static final double[] FN = new double[128];
+    private static final long[] KE = new long[256];
+    private static final double[] WE = new double[256];
+    private static final double[] FE = new double[256];
+
+    static {
+        final double m1 = 2147483648.0, m2 = 4294967296.0;
+        double dn = NORMAL_R, tn = dn, q;
+        q = NORMAL_V / Math.exp(-0.5 * dn * dn);
+        KN[0] = (long) ((dn / q) * m1);
+        KN[1] = 0;
+        WN[0] = q / m1;
+        WN[127] = dn / m1;
+        FN[0] = 1.0;
+        FN[127] = Math.exp(-0.5 * dn * dn);
+        for (int i = 126; i >= 1; i--) {
+            dn = Math.sqrt(-2.0 * Math.log(NORMAL_V / dn + Math.exp(-0.5 * dn * dn)));
+            KN[i + 1] = (long) ((dn / tn) * m1);
+            tn = dn;
+            FN[i] = Math.exp(-0.5 * dn * dn);
+            WN[i] = dn / m1;
+        }
+
+        double de = EXPONENTIAL_R, te = de;
+        q = EXPONENTIAL_V / Math.exp(-de);
+        KE[0] = (long) ((de / q) * m2);
+        KE[1] = 0;
+        WE[0] = q / m2;
+        WE[255] = de / m2;
+        FE[0] = 1.0;
+        FE[255] = Math.exp(-de);
+        for (int i = 254; i >= 1; i--) {
+            de = -Math.log(EXPONENTIAL_V / de + Math.exp(-de));
+            KE[i + 1] = (long) ((de / te) * m2);
+            te = de;
+            FE[i] = Math.exp(-de);
+            WE[i] = de / m2;
+        }
+    }
+
+    private final boolean isLegacy;
+
+    /**
+     * class constructor
+     *
+     * @param isLegacy true if the variates of the previous versions are used
+     */
+    public RandomVariates(boolean isLegacy) {
+        super();
+        this.isLegacy = isLegacy;
+    }
+
+    /**
+     * class constructor
+     *
+     * @param seed     the seed
+     * @param isLegacy true if the variates of the previous versions are used
+     */
+    public RandomVariates(long seed, boolean isLegacy) {
+        super(seed);
+        this.isLegacy = isLegacy;
+    }
+
+    /**
+     * returns true if the variates of the previous versions are used
+     */
+    public boolean isLegacy() {
+        return isLegacy;
+    }
+
+    /**
+     * returns an exponentially distributed number with mean 1
+     */
+    public double nextExponential() {
+        if (isLegacy) {
+            return Math.log(1 / nextDouble());
+        }
+        long bits = nextLong();
+        int i = (int) (bits & 255);
+        long j = bits >>> 32;
+        if (j < KE[i]) {
+            return j * WE[i];
+        }
+        return exponentialFix(i, j);
+    }
+
+    /**
+     * returns a normally distributed number with mean 0 and standard deviation 1
+     */
+    @Override
+    public double nextGaussian() {
+        if (isLegacy) {
+            return super.nextGaussian();
+        }
+        long bits = nextLong();
+        int i = (int) (bits & 127);
+        int h = (int) (bits >> 32);
+        if (Math.abs((long) h) < KN[i]) {
+            return h * WN[i];
+        }
+        return normalFix(i, h);
+    }
+
+    /**
+     * handles the rare case when the exponential variate is not inside the rectangle of its layer
+     */
+    private double exponentialFix(int i, long j) {
+        while (true) {
+            if (i == 0) {
+                return EXPONENTIAL_R - Math.log(nextOpenDouble());
+            }
+            double x = j * WE[i];
+            if (FE[i] + nextDouble() * (FE[i - 1] - FE[i]) < Math.exp(-x)) {
+                return x;
+            }
+            long bits = nextLong();
+            i = (int) (bits & 255);
+            j = bits >>> 32;
+            if (j < KE[i]) {
+                return j * WE[i];
+            }
+        }
+    }
+
+    /**
+     * handles the rare case when the normal variate is not inside the rectangle of its layer
+     */
+    private double normalFix(int i, int h) {
+        while (true) {
+            double x = h * WN[i];
+            if (i == 0) {
+                // the tail beyond NORMAL_R
+                double y;
+                do {
+                    x = -Math.log(nextOpenDouble()) / NORMAL_R;
+                    y = -Math.log(nextOpenDouble());
+                } while (y + y < x * x);
+                return h > 0 ? NORMAL_R + x : -NORMAL_R - x;
+            }
+            if (FN[i] + nextDouble() * (FN[i - 1] - FN[i]) < Math.exp(-0.5 * x * x)) {
+                return x;
+            }
+            long bits = nextLong();
+            i = (int) (bits & 127);
+            h = (int) (bits >> 32);
+            if (Math.abs((long) h) < KN[i]) {
+                return h * WN[i];
+            }
+        }
+    }
+
+    /**
+     * returns a uniformly distributed number in (0, 1]
+     */
+    private double nextOpenDouble() {
+        return 1.0 - nextDouble();
+    }
+
+}
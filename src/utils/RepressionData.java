@@ -1,6 +1,9 @@
 package utils;
 
-public class RepressionData {
+import java.io.Serializable;
+
+public class RepressionData implements Serializable {
+    private static final long serialVersionUID = 3318479104523711284L;
     private final double time;
     private final int repressedLength;
     private final double repressedRepScore;
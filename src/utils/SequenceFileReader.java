@@ -0,0 +1,36 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * random access to the records of a sequence file, so that a region is read without parsing the whole file
+ */
+public interface SequenceFileReader extends Closeable {
+
+    /**
+     * returns the number of records (chromosomes) of the file
+     */
+    int getRecordsNo();
+
+    /**
+     * returns the name of a record (the first word of its fasta header)
+     */
+    String getName(int record);
+
+    /**
+     * returns the description of a record (its fasta header without '>')
+     */
+    String getHeader(int record) throws IOException;
+
+    /**
+     * returns the number of nucleotides of a record
+     */
+    int getLength(int record);
+
+    /**
+     * reads the nucleotides [start, end) of a record
+     */
+    PackedSequence read(int record, int start, int end) throws IOException;
+
+}
@@ -0,0 +1,86 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+
+/**
+ * makes deep copies of a serializable object which share some of its objects (e.g. the large arrays which are only
+ * read) with the original instead of copying them. The object is serialised once, with a reference in place of each
+ * shared object, and every copy is read from the same bytes, so the copies can be made from several threads.
+ */
+public class SharedObjectCopier {
+
+    private final byte[] bytes;
+    private final Object[] shared;
+
+    /**
+     * class constructor. Serialises the object
+     *
+     * @param object the object to copy
+     * @param shared the objects which are shared by the copies (the nulls are ignored)
+     */
+    public SharedObjectCopier(Serializable object, Object... shared) throws IOException {
+        this.shared = shared;
+        final IdentityHashMap<Object, Integer> index = new IdentityHashMap<Object, Integer>();
+        for (int i = 0; i < shared.length; i++) {
+            if (shared[i] != null && !index.containsKey(shared[i])) {
+                index.put(shared[i], i);
+            }
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(buffer) {
+            {
+                enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) {
+                Integer i = index.get(obj);
+                return i == null ? obj : new SharedReference(i);
+            }
+        };
+        out.writeObject(object);
+        out.close();
+        this.bytes = buffer.toByteArray();
+    }
+
+    /**
+     * returns a new copy of the object
+     */
+    public Object copy() throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            {
+                enableResolveObject(true);
+            }
+
+            @Override
+            protected Object resolveObject(Object obj) {
+                return obj instanceof SharedReference ? shared[((SharedReference) obj).index] : obj;
+            }
+        };
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * the serialised form of a shared object
+     */
+    private static class SharedReference implements Serializable {
+        private static final long serialVersionUID = 6163507434186952407L;
+        private final int index;
+
+        private SharedReference(int index) {
+            this.index = index;
+        }
+    }
+
+}
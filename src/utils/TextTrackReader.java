@@ -0,0 +1,266 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * reads a text track file (a csv affinity landscape or a btrack accessibility file) line by line from a byte buffer,
+ * without building a string per line. The cells are parsed in place; the numbers are parsed with the same result as
+ * Double.parseDouble (the short decimals directly, the others through it), and the columns are counted as
+ * String.split counts them.
+ */
+public class TextTrackReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final InputStream in;
+    private final byte delimiter;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferEnd = 0;
+    private boolean isEndOfFile = false;
+    private boolean isAfterCR = false;
+
+    private int lineStart = 0, lineEnd = 0, next = 0;
+    private int[] cellStarts = new int[16];
+    private int cells = 0;
+    private int lineNo = 0;
+
+    /**
+     * class constructor
+     *
+     * @param filename  the text file
+     * @param delimiter the delimiter of the cells
+     */
+    public TextTrackReader(String filename, char delimiter) throws IOException {
+        this.in = new FileInputStream(filename);
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * moves to the next line (the lines end with \n, \r or \r\n, as with BufferedReader.readLine)
+     *
+     * @return false if there are no more lines
+     */
+    public boolean nextLine() throws IOException {
+        while (true) {
+            // a \n right after the \r which ended the previous line
+            if (isAfterCR && next < bufferEnd) {
+                if (buffer[next] == '\n') {
+                    next++;
+                }
+                isAfterCR = false;
+            }
+            for (int i = next; i < bufferEnd; i++) {
+                if (buffer[i] == '\n' || buffer[i] == '\r') {
+                    isAfterCR = buffer[i] == '\r';
+                    setLine(next, i);
+                    next = i + 1;
+                    return true;
+                }
+            }
+            if (isEndOfFile) {
+                if (next < bufferEnd) {
+                    setLine(next, bufferEnd);
+                    next = bufferEnd;
+                    return true;
+                }
+                return false;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * reads more bytes, keeping the unfinished line
+     */
+    private void fill() throws IOException {
+        int remaining = bufferEnd - next;
+        if (remaining == buffer.length) {
+            byte[] larger = new byte[2 * buffer.length];
+            System.arraycopy(buffer, next, larger, 0, remaining);
+            buffer = larger;
+        } else {
+            System.arraycopy(buffer, next, buffer, 0, remaining);
+        }
+        next = 0;
+        bufferEnd = remaining;
+        int read = in.read(buffer, bufferEnd, buffer.length - bufferEnd);
+        if (read < 0) {
+            isEndOfFile = true;
+        } else {
+            bufferEnd += read;
+        }
+    }
+
+    private void setLine(int start, int end) {
+        lineStart = start;
+        lineEnd = end;
+        lineNo++;
+        cells = 0;
+        addCell(start);
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == delimiter) {
+                addCell(i + 1);
+            }
+        }
+    }
+
+    private void addCell(int start) {
+        if (cells == cellStarts.length) {
+            int[] larger = new int[2 * cellStarts.length];
+            System.arraycopy(cellStarts, 0, larger, 0, cells);
+            cellStarts = larger;
+        }
+        cellStarts[cells++] = start;
+    }
+
+    private int getCellEnd(int column) {
+        return column + 1 < cells ? cellStarts[column + 1] - 1 : lineEnd;
+    }
+
+    /**
+     * returns the number of the current line (1 for the first line)
+     */
+    public int getLineNo() {
+        return lineNo;
+    }
+
+    /**
+     * returns true if the current line is empty
+     */
+    public boolean isEmpty() {
+        return lineEnd == lineStart;
+    }
+
+    /**
+     * returns the current line
+     */
+    public String getLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * returns the number of columns of the current line, as the length of String.split (the empty cells at the end
+     * are not counted, but a line without delimiter has one column)
+     */
+    public int getColumnsNo() {
+        if (cells == 1) {
+            return 1;
+        }
+        int columns = cells;
+        while (columns > 0 && getCellEnd(columns - 1) == cellStarts[columns - 1]) {
+            columns--;
+        }
+        return columns;
+    }
+
+    /**
+     * returns the number in a column of the current line, as Utils.parseDouble
+     *
+     * @param column       the column (from 0)
+     * @param defaultValue the value if the cell is not a number
+     */
+    public double getDouble(int column, double defaultValue) {
+        int start = cellStarts[column], end = getCellEnd(column);
+        while (start < end && buffer[start] <= ' ') {
+            start++;
+        }
+        while (end > start && buffer[end - 1] <= ' ') {
+            end--;
+        }
+        double value = parseDecimal(start, end);
+        if (Double.isNaN(value)) {
+            return Utils.parseDouble(new String(buffer, start, end - start, StandardCharsets.ISO_8859_1),
+                    defaultValue);
+        }
+        return value;
+    }
+
+    /**
+     * returns the current line as a byte, as Byte.parseByte
+     */
+    public byte getLineByte() throws NumberFormatException {
+        int i = lineStart;
+        boolean isNegative = i < lineEnd && buffer[i] == '-';
+        if (i < lineEnd && (buffer[i] == '-' || buffer[i] == '+')) {
+            i++;
+        }
+        int value = 0;
+        boolean isNumber = i < lineEnd && lineEnd - i <= 3;
+        for (; isNumber && i < lineEnd; i++) {
+            isNumber = buffer[i] >= '0' && buffer[i] <= '9';
+            value = 10 * value + (buffer[i] - '0');
+        }
+        value = isNegative ? -value : value;
+        if (!isNumber || value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            return Byte.parseByte(getLine());
+        }
+        return (byte) value;
+    }
+
+    /**
+     * parses a decimal number ([+-]digits[.digits][e[+-]digits]) whose digits fit in the 53 bits of a double and whose
+     * exponent is at most 22; the result is then the correctly rounded product or quotient of two exact doubles, the
+     * same as Double.parseDouble. Returns NaN for the other cells
+     */
+    private double parseDecimal(int start, int end) {
+        int i = start;
+        boolean isNegative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            isNegative = buffer[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0, exponent = 0;
+        for (; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++, digits++) {
+            mantissa = 10 * mantissa + (buffer[i] - '0');
+            if (mantissa > MAX_EXACT_MANTISSA) {
+                return Double.NaN;
+            }
+        }
+        if (i < end && buffer[i] == '.') {
+            for (i++; i < end && buffer[i] >= '0' && buffer[i] <= '9'; i++, digits++) {
+                mantissa = 10 * mantissa + (buffer[i] - '0');
+                exponent--;
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return Double.NaN;
+                }
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < end && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            boolean isNegativeExponent = i < end && buffer[i] == '-';
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                i++;
+            }
+            int value = 0, exponentDigits = 0;
+            for (; i < end && buffer[i] >= '0' && buffer[i] <= '9' && exponentDigits < 4; i++, exponentDigits++) {
+                value = 10 * value + (buffer[i] - '0');
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            exponent += isNegativeExponent ? -value : value;
+        }
+        if (i != end || exponent < -22 || exponent > 22) {
+            return Double.NaN;
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return isNegative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+}
@@ -0,0 +1,157 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * random access reader of a UCSC .2bit file (versions 0 and 1). Each record stores its nucleotides with 2 bits each
+ * (T, C, A, G) and the blocks of N apart, so a region is read by seeking to its bytes. The soft masked (lower case)
+ * blocks are ignored. The description of a record is its name and its
+ * range.
+ */
+public class TwoBitReader implements SequenceFileReader {
+
+    public static final String FILE_EXTENSION = ".2bit";
+    private static final int SIGNATURE = 0x1A412743;
+    private static final byte[] NUCLEOTIDE_IDS = {3, 1, 0, 2}; // the IDs of T, C, A and G
+
+    private final FileChannel channel;
+    private final ByteOrder order;
+    private final String[] names;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    /**
+     * class constructor. Reads the index of the records
+     *
+     * @param filename the .2bit file
+     */
+    public TwoBitReader(String filename) throws IOException {
+        channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, 16, ByteOrder.BIG_ENDIAN);
+            int signature = header.getInt();
+            if (signature == SIGNATURE) {
+                order = ByteOrder.BIG_ENDIAN;
+            } else if (Integer.reverseBytes(signature) == SIGNATURE) {
+                order = ByteOrder.LITTLE_ENDIAN;
+            } else {
+                throw new IOException(filename + " is not a .2bit file");
+            }
+            header.order(order);
+            int version = header.getInt();
+            if (version != 0 && version != 1) {
+                throw new IOException("unknown .2bit version " + version + " of " + filename);
+            }
+            int count = header.getInt();
+
+            names = new String[count];
+            offsets = new long[count];
+            lengths = new int[count];
+            long position = 16;
+            for (int i = 0; i < count; i++) {
+                int nameSize = read(position, 1, order).get() & 0xff;
+                ByteBuffer entry = read(position + 1, nameSize + (version == 0 ? 4 : 8), order);
+                byte[] name = new byte[nameSize];
+                entry.get(name);
+                names[i] = new String(name, StandardCharsets.ISO_8859_1);
+                offsets[i] = version == 0 ? entry.getInt() & 0xffffffffL : entry.getLong();
+                position += 1 + entry.capacity();
+            }
+            for (int i = 0; i < count; i++) {
+                lengths[i] = read(offsets[i], 4, order).getInt();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getRecordsNo() {
+        return names.length;
+    }
+
+    @Override
+    public String getName(int record) {
+        return names[record];
+    }
+
+    /**
+     * returns the name of the record, with its range if the name has none (e.g. chr2R:0..25286936), as in the
+     * descriptions of the fasta files
+     */
+    @Override
+    public String getHeader(int record) {
+        if (names[record].contains(Constants.FASTA_FILE_DESCRIPTION_CHROMOSOME_DELIMITER)) {
+            return names[record];
+        }
+        return names[record] + Constants.FASTA_FILE_DESCRIPTION_CHROMOSOME_DELIMITER + 0
+                + Constants.FASTA_FILE_DESCRIPTION_INTERVAL_DELIMITER + lengths[record];
+    }
+
+    @Override
+    public int getLength(int record) {
+        return lengths[record];
+    }
+
+    @Override
+    public PackedSequence read(int record, int start, int end) throws IOException {
+        if (start < 0 || end > lengths[record] || start > end) {
+            throw new IOException("region " + start + ".." + end + " outside of " + names[record] + " (length "
+                    + lengths[record] + ")");
+        }
+        // the record: length, N blocks (count, starts, sizes), mask blocks (count, starts, sizes), reserved, DNA
+        long position = offsets[record] + 4;
+        int nBlocks = read(position, 4, order).getInt();
+        ByteBuffer nBlockBuffer = read(position + 4, 8L * nBlocks, order);
+        position += 4 + 8L * nBlocks;
+        int maskBlocks = read(position, 4, order).getInt();
+        position += 4 + 8L * maskBlocks + 4;
+
+        byte[] seq = new byte[end - start];
+        if (end > start) {
+            ByteBuffer packed = read(position + start / 4, (end - 1) / 4 - start / 4 + 1, order);
+            for (int i = start; i < end; i++) {
+                int bits = packed.get(i / 4 - start / 4) >>> (6 - 2 * (i % 4));
+                seq[i - start] = NUCLEOTIDE_IDS[bits & 3];
+            }
+        }
+        for (int b = 0; b < nBlocks; b++) {
+            long blockStart = nBlockBuffer.getInt(4 * b) & 0xffffffffL;
+            long blockEnd = blockStart + (nBlockBuffer.getInt(4 * (nBlocks + b)) & 0xffffffffL);
+            for (long i = Math.max(start, blockStart); i < Math.min(end, blockEnd); i++) {
+                seq[(int) (i - start)] = CellUtils.bpANYID;
+            }
+        }
+        return new PackedSequence(seq);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * reads bytes of the file
+     */
+    private ByteBuffer read(long position, long size, ByteOrder order) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("block too large in the .2bit file");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(order);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of the .2bit file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+}
@@ -149,10 +149,10 @@ public class Utils {
 	/**
 	 * computes the average value of a vector
 	 */
-	public static <N> double computeMean(ArrayList<N> vector){
+	public static <N extends Number> double computeMean(ArrayList<N> vector){
 		double avg = 0;
 		for(N v: vector){
-			avg += (double) v;
+			avg += v.doubleValue();
 		}
 		if(vector.size()>0){
 			avg = avg / vector.size();
@@ -0,0 +1,94 @@
+package utils;
+
+/**
+ * xoshiro256** random number generator (Blackman and Vigna). It has a 256 bit state and, unlike java.util.Random, it
+ * is not synchronised, so a draw does not need an atomic update. The uniform numbers of java.util.Random (next,
+ * nextInt, nextDouble, ...) are all generated from nextLong.
+ *
+ * A generator can be created for a stream of a master seed; different streams give independent sequences, so each
+ * sample of the ensemble can have its own reproducible sequence whatever the order in which the samples are run.
+ */
+public class Xoshiro256StarStar extends RandomVariates {
+
+    private static final long serialVersionUID = -2318740153922650783L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // no initialisers, since the state is set by setSeed from the constructor of java.util.Random
+    private long s0, s1, s2, s3;
+
+    /**
+     * class constructor
+     *
+     * @param seed     the seed
+     * @param isLegacy true if the variates of the previous versions are used
+     */
+    public Xoshiro256StarStar(long seed, boolean isLegacy) {
+        super(seed, isLegacy);
+    }
+
+    /**
+     * returns the generator of a stream of a master seed
+     *
+     * @param masterSeed the master seed
+     * @param stream     the stream (for example the sample of the ensemble)
+     * @param isLegacy   true if the variates of the previous versions are used
+     */
+    public static Xoshiro256StarStar forStream(long masterSeed, long stream, boolean isLegacy) {
+        return new Xoshiro256StarStar(mix64(mix64(masterSeed) + GOLDEN_GAMMA * stream), isLegacy);
+    }
+
+    /**
+     * sets the state from the seed with SplitMix64, so that close seeds give unrelated states
+     */
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        s0 = mix64(seed += GOLDEN_GAMMA);
+        s1 = mix64(seed += GOLDEN_GAMMA);
+        s2 = mix64(seed += GOLDEN_GAMMA);
+        s3 = mix64(seed + GOLDEN_GAMMA);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * the finaliser of SplitMix64
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -24,7 +24,9 @@ public class DNAParameters  extends JPanel{
 
 	//DNA PARAMETERS
 	public LabelledFileChooser DNA_SEQUENCE_FILE;
+	public LabelledText DNA_SEQUENCE_REGION;
 	public LabelledFileChooser DNA_AVAILABILITY_FILE;
+	public LabelledFileChooser AFFINITY_CACHE_FOLDER;
 	public LabelledDouble DNA_DEREPRESSION_RATE;
 	
 	//DNA_RANDOM PARAMETERS
@@ -50,7 +52,9 @@ public class DNAParameters  extends JPanel{
 
 		//DNA PARAMETERS
 		DNA_SEQUENCE_FILE = new LabelledFileChooser(ip.DNA_SEQUENCE_FILE.label,GUIconstants.TEXTAREA_WIDTH,ip.DNA_SEQUENCE_FILE.description,ip.DNA_SEQUENCE_FILE.value, true, true);
+		DNA_SEQUENCE_REGION = new LabelledText(ip.DNA_SEQUENCE_REGION.label,GUIconstants.TEXTAREA_WIDTH,ip.DNA_SEQUENCE_REGION.description,ip.DNA_SEQUENCE_REGION.value);
 		DNA_AVAILABILITY_FILE = new LabelledFileChooser(ip.DNA_AVAILABILITY_FILE.label,GUIconstants.TEXTAREA_WIDTH,ip.DNA_AVAILABILITY_FILE.description,ip.DNA_AVAILABILITY_FILE.value, true, true);
+		AFFINITY_CACHE_FOLDER = new LabelledFileChooser(ip.AFFINITY_CACHE_FOLDER.label,GUIconstants.TEXTAREA_WIDTH,ip.AFFINITY_CACHE_FOLDER.description,ip.AFFINITY_CACHE_FOLDER.value, false, true);
 		DNA_DEREPRESSION_RATE = new LabelledDouble(ip.DNA_DEREPRESSION_RATE.label,GUIconstants.TEXTAREA_WIDTH,ip.DNA_DEREPRESSION_RATE.description,ip.DNA_DEREPRESSION_RATE.value);
 
 		//DNA_RANDOM PARAMETERS
@@ -87,7 +91,9 @@ public class DNAParameters  extends JPanel{
 		//DNA PARAMETERS
 		componentsStack.add(label1);
 		componentsStack.add(DNA_SEQUENCE_FILE);
+		componentsStack.add(DNA_SEQUENCE_REGION);
 		componentsStack.add(DNA_AVAILABILITY_FILE);
+		componentsStack.add(AFFINITY_CACHE_FOLDER);
 		componentsStack.add(DNA_DEREPRESSION_RATE);
 		
 		//DNA_RANDOM PARAMETERS
@@ -117,9 +123,15 @@ public class DNAParameters  extends JPanel{
 	private void resetLabelsWidth(){
 		//DNA PARAMETERS
 		int max = DNA_SEQUENCE_FILE.getLabelWidth();
+		if(DNA_SEQUENCE_REGION.getLabelWidth() > max){
+			max = DNA_SEQUENCE_REGION.getLabelWidth();
+		}
 		if(DNA_AVAILABILITY_FILE.getLabelWidth() > max){
 			max = DNA_AVAILABILITY_FILE.getLabelWidth();
 		}
+		if(AFFINITY_CACHE_FOLDER.getLabelWidth() > max){
+			max = AFFINITY_CACHE_FOLDER.getLabelWidth();
+		}
 		if(DNA_DEREPRESSION_RATE.getLabelWidth() > max){
 			max = DNA_DEREPRESSION_RATE.getLabelWidth();
 		}
@@ -146,7 +158,9 @@ public class DNAParameters  extends JPanel{
 
 		//DNA PARAMETERS
 		DNA_SEQUENCE_FILE.setLabelWidth(max);
+		DNA_SEQUENCE_REGION.setLabelWidth(max);
 		DNA_AVAILABILITY_FILE.setLabelWidth(max);
+		AFFINITY_CACHE_FOLDER.setLabelWidth(max);
 		DNA_DEREPRESSION_RATE.setLabelWidth(max);
 		
 		//DNA_RANDOM PARAMETERS
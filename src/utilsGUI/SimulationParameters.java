@@ -9,6 +9,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import objects.InputParameters;
+import utils.Constants;
 
 /**
  * tabbed panel with simulation parameters
@@ -21,9 +22,13 @@ public class SimulationParameters extends JPanel{
 	//SIMULATION PARAMATERS
 	public LabelledDouble STOP_TIME;
 	public LabelledInteger ENSEMBLE_SIZE;
+	public LabelledInteger ENSEMBLE_THREADS;
 	public LabelledInteger RANDOM_SEED;
 	public LabelledInteger DNA_SECTOR_SIZE;
 	public LabelledInteger EVENT_LIST_SUBGROUP_SIZE;
+	public LabelledComboBox EVENT_LIST_TYPE;
+	public LabelledComboBox RANDOM_VARIATES;
+	public LabelledComboBox RANDOM_GENERATOR;
 
 	
 	public SimulationParameters(InputParameters ip){
@@ -45,18 +50,29 @@ public class SimulationParameters extends JPanel{
 		//simulation params
 		STOP_TIME = new LabelledDouble(ip.STOP_TIME.label,GUIconstants.TEXTAREA_WIDTH,ip.STOP_TIME.description,ip.STOP_TIME.value);	
 		ENSEMBLE_SIZE = new LabelledInteger(ip.ENSEMBLE_SIZE.label,GUIconstants.TEXTAREA_WIDTH,ip.ENSEMBLE_SIZE.description, ip.ENSEMBLE_SIZE.value);
+		ENSEMBLE_THREADS = new LabelledInteger(ip.ENSEMBLE_THREADS.label,GUIconstants.TEXTAREA_WIDTH,ip.ENSEMBLE_THREADS.description, ip.ENSEMBLE_THREADS.value);
 		RANDOM_SEED = new LabelledInteger(ip.RANDOM_SEED.label,GUIconstants.TEXTAREA_WIDTH,ip.RANDOM_SEED.description, ip.RANDOM_SEED.value);
 		DNA_SECTOR_SIZE = new LabelledInteger(ip.DNA_SECTOR_SIZE.label,GUIconstants.TEXTAREA_WIDTH,ip.DNA_SECTOR_SIZE.description, ip.DNA_SECTOR_SIZE.value);
 		EVENT_LIST_SUBGROUP_SIZE = new LabelledInteger(ip.EVENT_LIST_SUBGROUP_SIZE.label,GUIconstants.TEXTAREA_WIDTH,ip.EVENT_LIST_SUBGROUP_SIZE.description, ip.EVENT_LIST_SUBGROUP_SIZE.value);
+		String[] eventListTypes = {Constants.EVENT_LIST_FIRST_REACTION, Constants.EVENT_LIST_INDEXED_HEAP, Constants.EVENT_LIST_NEXT_REACTION, Constants.EVENT_LIST_UNIFIED, Constants.EVENT_LIST_COMPOSITION_REJECTION};
+		EVENT_LIST_TYPE = new LabelledComboBox(ip.EVENT_LIST_TYPE.label,ip.EVENT_LIST_TYPE.description,eventListTypes,ip.EVENT_LIST_TYPE.value);
+		String[] randomVariates = {Constants.RANDOM_VARIATES_ZIGGURAT, Constants.RANDOM_VARIATES_LEGACY};
+		RANDOM_VARIATES = new LabelledComboBox(ip.RANDOM_VARIATES.label,ip.RANDOM_VARIATES.description,randomVariates,ip.RANDOM_VARIATES.value);
+		String[] randomGenerators = {Constants.RANDOM_GENERATOR_XOSHIRO, Constants.RANDOM_GENERATOR_LEGACY};
+		RANDOM_GENERATOR = new LabelledComboBox(ip.RANDOM_GENERATOR.label,ip.RANDOM_GENERATOR.description,randomGenerators,ip.RANDOM_GENERATOR.value);
 
 		resetLabelsWidth();
 		
 		//simulation params
 		componentsStack.add(STOP_TIME);
 		componentsStack.add(ENSEMBLE_SIZE);
+		componentsStack.add(ENSEMBLE_THREADS);
 		componentsStack.add(RANDOM_SEED);
 		componentsStack.add(DNA_SECTOR_SIZE);
 		componentsStack.add(EVENT_LIST_SUBGROUP_SIZE);
+		componentsStack.add(EVENT_LIST_TYPE);
+		componentsStack.add(RANDOM_VARIATES);
+		componentsStack.add(RANDOM_GENERATOR);
 
 		this.add(componentsStack);
 	}
@@ -77,6 +93,10 @@ public class SimulationParameters extends JPanel{
 			max = ENSEMBLE_SIZE.getLabelWidth();
 		}
 		
+		if(ENSEMBLE_THREADS.getLabelWidth() > max){
+			max = ENSEMBLE_THREADS.getLabelWidth();
+		}
+		
 		if(DNA_SECTOR_SIZE.getLabelWidth() > max){
 			max = DNA_SECTOR_SIZE.getLabelWidth();
 		}
@@ -85,6 +105,18 @@ public class SimulationParameters extends JPanel{
 			max = EVENT_LIST_SUBGROUP_SIZE.getLabelWidth();
 		}
 		
+		if(EVENT_LIST_TYPE.getLabelWidth() > max){
+			max = EVENT_LIST_TYPE.getLabelWidth();
+		}
+		
+		if(RANDOM_VARIATES.getLabelWidth() > max){
+			max = RANDOM_VARIATES.getLabelWidth();
+		}
+		
+		if(RANDOM_GENERATOR.getLabelWidth() > max){
+			max = RANDOM_GENERATOR.getLabelWidth();
+		}
+		
 		
 		
 		
@@ -96,9 +128,13 @@ public class SimulationParameters extends JPanel{
 		//SIMULATION PARAMATERS
 		STOP_TIME.setLabelWidth(max);
 		ENSEMBLE_SIZE.setLabelWidth(max);
+		ENSEMBLE_THREADS.setLabelWidth(max);
 		RANDOM_SEED.setLabelWidth(max);
 		DNA_SECTOR_SIZE.setLabelWidth(max);	
 		EVENT_LIST_SUBGROUP_SIZE.setLabelWidth(max);	
+		EVENT_LIST_TYPE.setLabelWidth(max);
+		RANDOM_VARIATES.setLabelWidth(max);
+		RANDOM_GENERATOR.setLabelWidth(max);
 
 	}
 	
@@ -42,6 +42,7 @@ public class TFRandomWalkParameters extends JPanel{
 	public LabelledCheckBox TF_STALLS_IF_BLOCKED;
 	public LabelledCheckBox TF_IS_IMMOBILE;
 	public LabelledCheckBox IS_BIASED_RANDOM_WALK;
+	public LabelledCheckBox SLIDE_PROBABILITIES_ON_DEMAND;
 	public LabelledCheckBox IS_TWO_STATE_RANDOM_WALK;
 
 	public LabelledDouble TF_SPECIFIC_ENERGY_THRESHOLD;
@@ -82,6 +83,7 @@ public class TFRandomWalkParameters extends JPanel{
 		TF_STALLS_IF_BLOCKED = new LabelledCheckBox(ip.TF_STALLS_IF_BLOCKED.label, ip.TF_STALLS_IF_BLOCKED.description, ip.TF_STALLS_IF_BLOCKED.value); 
 		TF_IS_IMMOBILE = new LabelledCheckBox(ip.TF_IS_IMMOBILE.label, ip.TF_IS_IMMOBILE.description, ip.TF_IS_IMMOBILE.value);
 		IS_BIASED_RANDOM_WALK = new LabelledCheckBox(ip.IS_BIASED_RANDOM_WALK.label, ip.IS_BIASED_RANDOM_WALK.description, ip.IS_BIASED_RANDOM_WALK.value); 
+		SLIDE_PROBABILITIES_ON_DEMAND = new LabelledCheckBox(ip.SLIDE_PROBABILITIES_ON_DEMAND.label, ip.SLIDE_PROBABILITIES_ON_DEMAND.description, ip.SLIDE_PROBABILITIES_ON_DEMAND.value);
 		IS_TWO_STATE_RANDOM_WALK = new LabelledCheckBox(ip.IS_TWO_STATE_RANDOM_WALK.label, ip.IS_TWO_STATE_RANDOM_WALK.description, ip.IS_TWO_STATE_RANDOM_WALK.value);
 
 		TF_SPECIFIC_ENERGY_THRESHOLD = new LabelledDouble(ip.TF_SPECIFIC_ENERGY_THRESHOLD.label,GUIconstants.TEXTAREA_WIDTH,ip.TF_SPECIFIC_ENERGY_THRESHOLD.description,ip.TF_SPECIFIC_ENERGY_THRESHOLD.value);
@@ -121,6 +123,7 @@ public class TFRandomWalkParameters extends JPanel{
 		componentsStack.add(TF_STALLS_IF_BLOCKED);
 		componentsStack.add(TF_IS_IMMOBILE);
 		componentsStack.add(IS_BIASED_RANDOM_WALK);
+		componentsStack.add(SLIDE_PROBABILITIES_ON_DEMAND);
 		componentsStack.add(IS_TWO_STATE_RANDOM_WALK);
 		componentsStack.add(TF_SPECIFIC_ENERGY_THRESHOLD);
 		componentsStack.add(TF_TAU);